@@ -70,4 +70,16 @@ public @interface InsertProvider {
    */
   String method() default "";
 
+  /**
+   * Specify a method of the provider type that returns the cache key of the SQL built by the provider method.
+   * <p>
+   * The method receives the same arguments as the provider method. When it returns a non-null key, the SQL is
+   * built and parsed once for each key and parameter type and then reused, so the provider method must return
+   * the same SQL for arguments with the same key. By default the SQL is built on each execution.
+   * </p>
+   *
+   * @return a method name of method for providing a cache key
+   */
+  String cacheKeyMethod() default "";
+
 }
@@ -18,6 +18,7 @@ package org.apache.ibatis.binding;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -90,6 +91,8 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {//返回游标
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsPublisher()) {
+          result = executeForPublisher(sqlSession, args);
         } else {//查询返回单个
           Object param = method.convertArgsToSqlCommandParam(args); // 解析参数
           /**
@@ -186,6 +189,18 @@ public class MapperMethod {
     return result;
   }
 
+  private <T> CursorPublisher<T> executeForPublisher(SqlSession sqlSession, Object[] args) {
+    CursorPublisher<T> result;
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      result = sqlSession.selectPublisher(command.getName(), param, rowBounds);
+    } else {
+      result = sqlSession.selectPublisher(command.getName(), param);
+    }
+    return result;
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -306,6 +321,7 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsPublisher;
     private final boolean returnsOptional;
     private final Class<?> returnType;
     private final String mapKey;
@@ -341,6 +357,7 @@ public class MapperMethod {
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       //返回值是不是游标
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsPublisher = CursorPublisher.class.equals(this.returnType);
       //返回值是不是optionnal类型的
       this.returnsOptional = Optional.class.equals(this.returnType);
       this.mapKey = getMapKey(method);
@@ -403,6 +420,10 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    public boolean returnsPublisher() {
+      return returnsPublisher;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}.
      *
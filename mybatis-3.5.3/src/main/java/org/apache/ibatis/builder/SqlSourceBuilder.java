@@ -16,6 +16,7 @@
 package org.apache.ibatis.builder;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +26,7 @@ import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.parsing.TokenHandler;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 
@@ -35,6 +37,8 @@ public class SqlSourceBuilder extends BaseBuilder {
 
   private static final String PARAMETER_PROPERTIES = "javaType,jdbcType,mode,numericScale,resultMap,typeHandler,jdbcTypeName";
 
+  private static final int PARAMETER_EXPRESSION_CACHE_LIMIT = 1024;
+
   public SqlSourceBuilder(Configuration configuration) {
     super(configuration);
   }
@@ -124,8 +128,22 @@ public class SqlSourceBuilder extends BaseBuilder {
     }
 
     private Map<String, String> parseParameterMapping(String content) {
+      // the items of a foreach are bound to names unique to each item, which are not worth caching
+      final Map<String, Map<String, String>> cache = content.trim().startsWith(ForEachSqlNode.ITEM_PREFIX)
+          ? null : configuration.getParameterExpressionCache();
+      Map<String, String> parameterExpression = cache == null ? null : cache.get(content);
+      if (parameterExpression != null) {
+        return parameterExpression;
+      }
       try {
-        return new ParameterExpression(content);
+        parameterExpression = Collections.unmodifiableMap(new ParameterExpression(content));
+        if (cache != null) {
+          if (cache.size() >= PARAMETER_EXPRESSION_CACHE_LIMIT) {
+            cache.clear();
+          }
+          cache.put(content, parameterExpression);
+        }
+        return parameterExpression;
       } catch (BuilderException ex) {
         throw ex;
       } catch (Exception ex) {
@@ -19,7 +19,9 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.annotations.Lang;
 import org.apache.ibatis.builder.BuilderException;
@@ -35,6 +37,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public class ProviderSqlSource implements SqlSource {
 
+  private static final int SQL_SOURCE_CACHE_LIMIT = 256;
+
   private final Configuration configuration;
   private final Class<?> providerType;
   private final LanguageDriver languageDriver;
@@ -44,6 +48,8 @@ public class ProviderSqlSource implements SqlSource {
   private final Class<?>[] providerMethodParameterTypes;
   private final ProviderContext providerContext;
   private final Integer providerContextIndex;
+  private final Method cacheKeyMethod;
+  private final Map<Object, SqlSource> sqlSourceCache = new ConcurrentHashMap<>();
 
   /**
    * @deprecated Since 3.5.3, Please use the {@link #ProviderSqlSource(Configuration, Annotation, Class, Method)} instead of this.
@@ -124,6 +130,34 @@ public class ProviderSqlSource implements SqlSource {
     }
     this.providerContext = candidateProviderContext;
     this.providerContextIndex = candidateProviderContextIndex;
+    this.cacheKeyMethod = resolveCacheKeyMethod(provider);
+  }
+
+  private Method resolveCacheKeyMethod(Annotation provider) {
+    String cacheKeyMethodName;
+    try {
+      cacheKeyMethodName = (String) provider.annotationType().getMethod("cacheKeyMethod").invoke(provider);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (Exception e) {
+      throw new BuilderException("Error creating SqlSource for SqlProvider.  Cause: " + e, e);
+    }
+    if (cacheKeyMethodName.length() == 0) {
+      return null;
+    }
+    Method method;
+    try {
+      method = this.providerType.getMethod(cacheKeyMethodName, this.providerMethodParameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new BuilderException("Error creating SqlSource for SqlProvider. Cache key method '"
+          + cacheKeyMethodName + "' with the same arguments as '" + this.providerMethod.getName()
+          + "' not found in SqlProvider '" + this.providerType.getName() + "'.");
+    }
+    if (method.getReturnType() == void.class) {
+      throw new BuilderException("Error creating SqlSource for SqlProvider. Cache key method '"
+          + cacheKeyMethodName + "' in SqlProvider '" + this.providerType.getName() + "' must return a value.");
+    }
+    return method;
   }
 
   @Override
@@ -134,34 +168,47 @@ public class ProviderSqlSource implements SqlSource {
 
   private SqlSource createSqlSource(Object parameterObject) {
     try {
-      String sql;
+      Object[] args;
       if (parameterObject instanceof Map) {
         int bindParameterCount = providerMethodParameterTypes.length - (providerContext == null ? 0 : 1);
         if (bindParameterCount == 1 &&
           (providerMethodParameterTypes[Integer.valueOf(0).equals(providerContextIndex) ? 1 : 0].isAssignableFrom(parameterObject.getClass()))) {
-          sql = invokeProviderMethod(extractProviderMethodArguments(parameterObject));
+          args = extractProviderMethodArguments(parameterObject);
         } else {
           @SuppressWarnings("unchecked")
           Map<String, Object> params = (Map<String, Object>) parameterObject;
-          sql = invokeProviderMethod(extractProviderMethodArguments(params, providerMethodArgumentNames));
+          args = extractProviderMethodArguments(params, providerMethodArgumentNames);
         }
       } else if (providerMethodParameterTypes.length == 0) {
-        sql = invokeProviderMethod();
+        args = new Object[0];
       } else if (providerMethodParameterTypes.length == 1) {
         if (providerContext == null) {
-          sql = invokeProviderMethod(parameterObject);
+          args = new Object[] { parameterObject };
         } else {
-          sql = invokeProviderMethod(providerContext);
+          args = new Object[] { providerContext };
         }
       } else if (providerMethodParameterTypes.length == 2) {
-        sql = invokeProviderMethod(extractProviderMethodArguments(parameterObject));
+        args = extractProviderMethodArguments(parameterObject);
       } else {
         throw new BuilderException("Cannot invoke SqlProvider method '" + providerMethod
           + "' with specify parameter '" + (parameterObject == null ? null : parameterObject.getClass())
           + "' because SqlProvider method arguments for '" + mapperMethod + "' is an invalid combination.");
       }
       Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-      return languageDriver.createSqlSource(configuration, sql, parameterType);
+      Object cacheKey = cacheKeyMethod == null ? null : invoke(cacheKeyMethod, args);
+      if (cacheKey == null) {
+        return languageDriver.createSqlSource(configuration, invokeProviderMethod(args), parameterType);
+      }
+      // the parameter type is part of the key as the language driver may resolve parameter types from it
+      Object sqlSourceKey = Arrays.asList(cacheKey, parameterType);
+      SqlSource sqlSource = sqlSourceCache.get(sqlSourceKey);
+      if (sqlSource == null) {
+        sqlSource = languageDriver.createSqlSource(configuration, invokeProviderMethod(args), parameterType);
+        if (sqlSourceCache.size() < SQL_SOURCE_CACHE_LIMIT) {
+          sqlSourceCache.putIfAbsent(sqlSourceKey, sqlSource);
+        }
+      }
+      return sqlSource;
     } catch (BuilderException e) {
       throw e;
     } catch (Exception e) {
@@ -201,13 +248,17 @@ public class ProviderSqlSource implements SqlSource {
     return args;
   }
 
-  private String invokeProviderMethod(Object... args) throws Exception {
+  private String invokeProviderMethod(Object[] args) throws Exception {
+    CharSequence sql = (CharSequence) invoke(providerMethod, args);
+    return sql != null ? sql.toString() : null;
+  }
+
+  private Object invoke(Method method, Object[] args) throws Exception {
     Object targetObject = null;
-    if (!Modifier.isStatic(providerMethod.getModifiers())) {
+    if (!Modifier.isStatic(method.getModifiers())) {
       targetObject = providerType.getDeclaredConstructor().newInstance();
     }
-    CharSequence sql = (CharSequence) providerMethod.invoke(targetObject, args);
-    return sql != null ? sql.toString() : null;
+    return method.invoke(targetObject, args);
   }
 
   private Class<?> getProviderType(Annotation providerAnnotation, Method mapperMethod)
@@ -0,0 +1,271 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Publishes the items of a {@link Cursor} following the contract of {@code java.util.concurrent.Flow.Publisher}.
+ * The nested {@link Subscriber} and {@link Subscription} mirror their {@code Flow} counterparts so they can be
+ * adapted to any reactive library with a couple of lambdas.
+ * <p>
+ * Rows are only read when they are requested. The thread calling {@link Subscription#request(long)} fetches
+ * them from the ResultSet, so the driver reads them in chunks of the statement fetchSize as demand arrives and
+ * no thread is blocked while there is none. Each subscription opens its own cursor on the first request and
+ * closes it as soon as it is consumed, fails or is cancelled.
+ * <p>
+ * The publishers returned by a {@link SqlSession} and by mapper methods use that session, which is not thread
+ * safe and keeps its connection until it is closed: their items must be requested on the thread that created
+ * the publisher, while the session is open. Use {@link #of(SqlSessionFactory, String, Object)} to consume the
+ * items on other threads and release the connection as soon as a subscription ends.
+ *
+ * @param <T> the published item type
+ */
+public class CursorPublisher<T> {
+
+  public interface Subscriber<T> {
+
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  public interface Subscription {
+
+    /**
+     * Adds {@code n} items to the demand of this subscription and fetches them on the calling thread.
+     */
+    void request(long n);
+
+    /**
+     * Stops the subscription and closes its cursor.
+     */
+    void cancel();
+  }
+
+  private final Supplier<Cursor<T>> cursorSupplier;
+  private final Thread ownerThread;
+
+  public CursorPublisher(Supplier<Cursor<T>> cursorSupplier) {
+    this(cursorSupplier, null);
+  }
+
+  private CursorPublisher(Supplier<Cursor<T>> cursorSupplier, Thread ownerThread) {
+    this.cursorSupplier = cursorSupplier;
+    this.ownerThread = ownerThread;
+  }
+
+  /**
+   * Creates a publisher whose items can only be requested on the current thread, for cursors opened by a
+   * {@link SqlSession} that the caller keeps open. A subscription requested on another thread fails with an
+   * {@link IllegalStateException}, and leaves its cursor to be closed with the session.
+   */
+  public static <T> CursorPublisher<T> onCurrentThread(Supplier<Cursor<T>> cursorSupplier) {
+    return new CursorPublisher<>(cursorSupplier, Thread.currentThread());
+  }
+
+  /**
+   * Creates a publisher that opens a new {@link SqlSession} for each subscription and closes it together with
+   * the cursor, so the connection is released as soon as the subscription completes, fails or is cancelled.
+   */
+  public static <T> CursorPublisher<T> of(SqlSessionFactory sqlSessionFactory, String statement, Object parameter) {
+    return new CursorPublisher<>(() -> {
+      SqlSession sqlSession = sqlSessionFactory.openSession();
+      try {
+        return new SessionCursor<>(sqlSession, sqlSession.selectCursor(statement, parameter));
+      } catch (RuntimeException e) {
+        sqlSession.close();
+        throw e;
+      }
+    });
+  }
+
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber must not be null");
+    }
+    subscriber.onSubscribe(new CursorSubscription<>(cursorSupplier, ownerThread, subscriber));
+  }
+
+  private static class CursorSubscription<T> implements Subscription {
+
+    private final Supplier<Cursor<T>> cursorSupplier;
+    private final Thread ownerThread;
+    private final Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+
+    // only accessed by the thread that drains
+    private Cursor<T> cursor;
+    private Iterator<T> iterator;
+    private boolean done;
+
+    private CursorSubscription(Supplier<Cursor<T>> cursorSupplier, Thread ownerThread, Subscriber<? super T> subscriber) {
+      this.cursorSupplier = cursorSupplier;
+      this.ownerThread = ownerThread;
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Subscription.request requires a positive number but was " + n);
+      } else {
+        requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    private void drain() {
+      // the first caller emits, reentrant and concurrent callers just signal there is more work
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        emit();
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      if (done) {
+        return;
+      }
+      if (ownerThread != null && Thread.currentThread() != ownerThread) {
+        // the session of the cursor must not be used, not even to close the cursor
+        done = true;
+        if (!cancelled) {
+          subscriber.onError(new IllegalStateException("The items of a publisher bound to a SqlSession must be requested on the thread "
+              + ownerThread.getName() + " that created it. Use CursorPublisher.of(SqlSessionFactory, ...) to request them on other threads."));
+        }
+        return;
+      }
+      if (cancelled) {
+        finish();
+        return;
+      }
+      if (invalidRequest != null) {
+        finish();
+        subscriber.onError(invalidRequest);
+        return;
+      }
+      boolean signalling = false;
+      try {
+        if (iterator == null) {
+          if (requested.get() == 0) {
+            return;
+          }
+          cursor = cursorSupplier.get();
+          iterator = cursor.iterator();
+        }
+        while (requested.get() > 0 && !cancelled && invalidRequest == null && iterator.hasNext()) {
+          T item = iterator.next();
+          requested.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+          signalling = true;
+          subscriber.onNext(item);
+          signalling = false;
+        }
+        if (cancelled) {
+          finish();
+        } else if (invalidRequest == null && !iterator.hasNext()) {
+          finish();
+          signalling = true;
+          subscriber.onComplete();
+        }
+      } catch (RuntimeException e) {
+        finish();
+        if (signalling) {
+          // the subscription is cancelled and the subscriber that failed is not signalled again
+          throw e;
+        }
+        subscriber.onError(e);
+      }
+    }
+
+    private void finish() {
+      done = true;
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (IOException e) {
+          // ignore
+        }
+        cursor = null;
+      }
+    }
+  }
+
+  private static class SessionCursor<T> implements Cursor<T> {
+
+    private final SqlSession sqlSession;
+    private final Cursor<T> delegate;
+
+    private SessionCursor(SqlSession sqlSession, Cursor<T> delegate) {
+      this.sqlSession = sqlSession;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return delegate.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return delegate.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return delegate.getCurrentIndex();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return delegate.iterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        delegate.close();
+      } finally {
+        sqlSession.close();
+      }
+    }
+  }
+
+}
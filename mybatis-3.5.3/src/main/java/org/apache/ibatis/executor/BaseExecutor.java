@@ -26,6 +26,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.dialect.Pagination;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -203,6 +204,12 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
+    BoundSql pagedBoundSql = configuration.getDialect() != null && Pagination.canPaginate(ms, rowBounds)
+        ? Pagination.paginate(configuration.getDialect(), ms, boundSql, rowBounds) : null;
+    if (pagedBoundSql != null) {
+      boundSql = pagedBoundSql;
+      rowBounds = RowBounds.DEFAULT;
+    }
     return doQueryCursor(ms, parameter, rowBounds, boundSql);
   }
 
@@ -358,6 +365,13 @@ public abstract class BaseExecutor implements Executor {
     List<E> list;
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
     try {
+      // the cache key is built from the original query and bounds
+      BoundSql pagedBoundSql = configuration.getDialect() != null && Pagination.canPaginate(ms, rowBounds)
+          ? Pagination.paginate(configuration.getDialect(), ms, boundSql, rowBounds) : null;
+      if (pagedBoundSql != null) {
+        boundSql = pagedBoundSql;
+        rowBounds = RowBounds.DEFAULT;
+      }
       list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
     } finally {
       localCache.removeObject(key);
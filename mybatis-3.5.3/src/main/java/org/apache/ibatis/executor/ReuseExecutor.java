@@ -84,6 +84,10 @@ public class ReuseExecutor extends BaseExecutor {
     if (hasStatementFor(sql)) {
       stmt = getStatement(sql);
       applyTransactionTimeout(stmt);
+      // a reused statement may have been limited to the row bounds of a previous query
+      if (stmt.getMaxRows() != 0) {
+        stmt.setMaxRows(0);
+      }
     } else {
       Connection connection = getConnection(statementLog);
       stmt = handler.prepare(connection, transaction.getTimeout());
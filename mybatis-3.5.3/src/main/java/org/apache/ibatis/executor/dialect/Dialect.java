@@ -0,0 +1,41 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.dialect;
+
+/**
+ * Rewrites a query so that the database skips and limits the rows of a {@link org.apache.ibatis.session.RowBounds}
+ * instead of the driver transferring them to be discarded on the client.
+ * <p>
+ * The returned SQL must contain a {@code ?} placeholder for the offset (when {@code hasOffset} is true) followed by
+ * one for the limit (when {@code hasLimit} is true), appended after the placeholders of the original SQL. The SQL
+ * it receives has no trailing semicolon or comment, and its outermost query has no clause limiting or locking its
+ * rows yet.
+ */
+public interface Dialect {
+
+  String getLimitSql(String sql, boolean hasOffset, boolean hasLimit);
+
+  /**
+   * Returns the SQL placed between the parentheses of an IN list to read its values from a single JDBC array
+   * parameter, or {@code null} when the database cannot bind an IN list as an array.
+   *
+   * @param parameter the placeholder of the array parameter
+   */
+  default String getArrayInListSql(String parameter) {
+    return null;
+  }
+
+}
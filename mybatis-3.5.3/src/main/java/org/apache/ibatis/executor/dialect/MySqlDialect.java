@@ -0,0 +1,37 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.dialect;
+
+/**
+ * Dialect for MySQL and MariaDB.
+ */
+public class MySqlDialect implements Dialect {
+
+  // MySQL has no offset without a limit, this is the largest row count it accepts
+  private static final String MAX_ROWS = "18446744073709551615";
+
+  @Override
+  public String getLimitSql(String sql, boolean hasOffset, boolean hasLimit) {
+    StringBuilder builder = new StringBuilder(sql.length() + 30).append(sql).append(" LIMIT ");
+    if (hasOffset) {
+      builder.append("?, ").append(hasLimit ? "?" : MAX_ROWS);
+    } else {
+      builder.append('?');
+    }
+    return builder.toString();
+  }
+
+}
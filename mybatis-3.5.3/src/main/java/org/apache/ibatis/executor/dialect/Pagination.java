@@ -0,0 +1,151 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.dialect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Applies {@link RowBounds} on the database side, either by rewriting the query with a {@link Dialect} or by
+ * limiting the rows the driver fetches.
+ * <p>
+ * Only flat queries are paginated this way: the bounds of a query with nested result maps apply to the mapped
+ * objects rather than to the rows, and stored procedures or multiple result sets cannot be rewritten.
+ */
+public final class Pagination {
+
+  static final String OFFSET_PARAMETER = "__rowBoundsOffset";
+  static final String LIMIT_PARAMETER = "__rowBoundsLimit";
+  // the words of the outermost query after which the clauses of a dialect cannot be appended
+  private static final Set<String> LIMITING_CLAUSES = new HashSet<>(Arrays.asList("limit", "offset", "fetch", "top", "rownum", "for", "lock"));
+
+  private Pagination() {
+    // Prevent Instantiation
+  }
+
+  public static boolean isBounded(RowBounds rowBounds) {
+    return rowBounds.getOffset() > RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() < RowBounds.NO_ROW_LIMIT;
+  }
+
+  public static boolean canPaginate(MappedStatement ms, RowBounds rowBounds) {
+    return isBounded(rowBounds)
+        && ms.getStatementType() != StatementType.CALLABLE
+        && ms.getResultSets() == null
+        && !ms.hasNestedResultMaps();
+  }
+
+  /**
+   * Returns the query rewritten by the dialect to skip and limit the rows of the bounds, with the offset and the
+   * limit bound as additional parameters, or {@code null} when the query cannot be rewritten. The bounds are then
+   * applied by limiting the rows the driver fetches and skipping them on the client.
+   */
+  public static BoundSql paginate(Dialect dialect, MappedStatement ms, BoundSql boundSql, RowBounds rowBounds) {
+    final String pageableSql = toPageableSql(boundSql.getSql());
+    if (pageableSql == null) {
+      return null;
+    }
+    final Configuration configuration = ms.getConfiguration();
+    final boolean hasOffset = rowBounds.getOffset() > RowBounds.NO_ROW_OFFSET;
+    final boolean hasLimit = rowBounds.getLimit() < RowBounds.NO_ROW_LIMIT;
+    final String sql = dialect.getLimitSql(pageableSql, hasOffset, hasLimit);
+    final List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+    final Map<String, Object> page = new HashMap<>();
+    if (hasOffset) {
+      parameterMappings.add(new ParameterMapping.Builder(configuration, OFFSET_PARAMETER, Integer.class).jdbcType(JdbcType.INTEGER).build());
+      page.put(OFFSET_PARAMETER, rowBounds.getOffset());
+    }
+    if (hasLimit) {
+      parameterMappings.add(new ParameterMapping.Builder(configuration, LIMIT_PARAMETER, Integer.class).jdbcType(JdbcType.INTEGER).build());
+      page.put(LIMIT_PARAMETER, rowBounds.getLimit());
+    }
+    // the additional parameters of the original may be the bindings of its dynamic SQL, they are left untouched
+    return boundSql.withSql(sql, parameterMappings, page);
+  }
+
+  /**
+   * Returns the maximum number of rows a statement has to fetch for the bounds, or 0 when it is not limited.
+   */
+  public static int getMaxRows(MappedStatement ms, RowBounds rowBounds) {
+    if (rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT || !canPaginate(ms, rowBounds)) {
+      return 0;
+    }
+    long maxRows = (long) rowBounds.getOffset() + rowBounds.getLimit();
+    return maxRows > Integer.MAX_VALUE ? 0 : (int) maxRows;
+  }
+
+  /**
+   * Returns the SQL without its trailing semicolons, comments and whitespace, or {@code null} when clauses cannot be
+   * appended to it: its outermost query already limits or locks its rows, or it holds several statements.
+   */
+  static String toPageableSql(String sql) {
+    int depth = 0;
+    int end = 0;
+    boolean terminated = false;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (c == '-' && sql.startsWith("-", i + 1)) {
+        final int lineEnd = sql.indexOf('\n', i);
+        i = lineEnd < 0 ? sql.length() : lineEnd;
+        continue;
+      } else if (c == '/' && sql.startsWith("*", i + 1)) {
+        final int commentEnd = sql.indexOf("*/", i + 2);
+        i = commentEnd < 0 ? sql.length() : commentEnd + 1;
+        continue;
+      } else if (Character.isWhitespace(c)) {
+        continue;
+      } else if (c == ';' && depth == 0) {
+        terminated = true;
+        continue;
+      } else if (terminated) {
+        return null;
+      }
+      if (c == '\'' || c == '"' || c == '`' || c == '[') {
+        final int quoteEnd = sql.indexOf(c == '[' ? ']' : c, i + 1);
+        i = quoteEnd < 0 ? sql.length() - 1 : quoteEnd;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (Character.isJavaIdentifierStart(c)) {
+        int wordEnd = i + 1;
+        while (wordEnd < sql.length() && Character.isJavaIdentifierPart(sql.charAt(wordEnd))) {
+          wordEnd++;
+        }
+        if (depth == 0 && LIMITING_CLAUSES.contains(sql.substring(i, wordEnd).toLowerCase(Locale.ENGLISH))) {
+          return null;
+        }
+        i = wordEnd - 1;
+      }
+      end = i + 1;
+    }
+    return sql.substring(0, end);
+  }
+
+}
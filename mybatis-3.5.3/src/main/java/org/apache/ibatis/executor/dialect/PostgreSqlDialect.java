@@ -0,0 +1,40 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.dialect;
+
+/**
+ * Dialect for PostgreSQL.
+ */
+public class PostgreSqlDialect implements Dialect {
+
+  @Override
+  public String getLimitSql(String sql, boolean hasOffset, boolean hasLimit) {
+    StringBuilder builder = new StringBuilder(sql.length() + 20).append(sql);
+    if (hasOffset) {
+      builder.append(" OFFSET ?");
+    }
+    if (hasLimit) {
+      builder.append(" LIMIT ?");
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public String getArrayInListSql(String parameter) {
+    return "SELECT UNNEST(" + parameter + ")";
+  }
+
+}
@@ -0,0 +1,260 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+
+/**
+ * Loads a nested select for many parent objects at once.
+ * <p>
+ * The nested statement receives the keys of up to {@link ResultMapping#getBatchSize()} parents as a list
+ * (available as {@code list} or {@code collection}) and the returned rows are linked back to their parents
+ * by comparing the {@code foreignColumn} of each row with the {@code column} of each parent.
+ * <p>
+ * Lazy loads of the same property are grouped as well: when the property of one object is loaded, the
+ * property is also loaded for up to {@code batchSize - 1} sibling objects that are still waiting for it.
+ * <p>
+ * The sibling objects may be loaded from different threads, so the pending loads are guarded by this loader.
+ * The nested select itself runs without holding the lock, as setting the property of a sibling locks its proxy.
+ */
+public class BatchResultLoader {
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final MappedStatement mappedStatement;
+  private final ResultMapping resultMapping;
+  private final Class<?> targetType;
+  private final ResultExtractor resultExtractor;
+  private final List<PendingLoad> pendingLoads = new ArrayList<>();
+
+  private List<String> foreignProperties;
+
+  private static class PendingLoad {
+    private final MetaObject metaResultObject;
+    private final Object key;
+    private final ResultLoaderMap resultLoaderMap;
+
+    private PendingLoad(MetaObject metaResultObject, Object key, ResultLoaderMap resultLoaderMap) {
+      this.metaResultObject = metaResultObject;
+      this.key = key;
+      this.resultLoaderMap = resultLoaderMap;
+    }
+  }
+
+  private class LazyLoad extends ResultLoader {
+    private final PendingLoad pendingLoad;
+
+    private LazyLoad(PendingLoad pendingLoad, Object parameterObject, CacheKey cacheKey, BoundSql boundSql) {
+      super(BatchResultLoader.this.configuration, BatchResultLoader.this.executor, BatchResultLoader.this.mappedStatement,
+          parameterObject, BatchResultLoader.this.targetType, cacheKey, boundSql);
+      this.pendingLoad = pendingLoad;
+    }
+
+    @Override
+    public Object loadResult() throws SQLException {
+      resultObject = loadLazily(this);
+      return resultObject;
+    }
+  }
+
+  public BatchResultLoader(Configuration configuration, Executor executor, MappedStatement mappedStatement, ResultMapping resultMapping, Class<?> targetType) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.mappedStatement = mappedStatement;
+    this.resultMapping = resultMapping;
+    this.targetType = targetType;
+    this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+  }
+
+  /**
+   * Wraps the keys the same way a list parameter is wrapped by the default SqlSession.
+   */
+  public static Object wrapKeys(List<Object> keys) {
+    StrictMap<Object> map = new StrictMap<>();
+    map.put("collection", keys);
+    map.put("list", keys);
+    return map;
+  }
+
+  public synchronized void addPendingLoad(MetaObject metaResultObject, Object key) {
+    pendingLoads.add(new PendingLoad(metaResultObject, key, null));
+  }
+
+  /**
+   * Registers a lazy load and returns the loader to be added to the {@link ResultLoaderMap} of the object.
+   */
+  public ResultLoader addLazyLoad(ResultLoaderMap resultLoaderMap, MetaObject metaResultObject, Object key,
+                                  Object parameterObject, CacheKey cacheKey, BoundSql boundSql) {
+    PendingLoad pendingLoad = new PendingLoad(metaResultObject, key, resultLoaderMap);
+    synchronized (this) {
+      pendingLoads.add(pendingLoad);
+    }
+    return new LazyLoad(pendingLoad, parameterObject, cacheKey, boundSql);
+  }
+
+  public synchronized boolean isEmpty() {
+    return pendingLoads.isEmpty();
+  }
+
+  public void loadAll() throws SQLException {
+    List<PendingLoad> batch;
+    while (!(batch = nextBatch()).isEmpty()) {
+      load(batch, null);
+    }
+  }
+
+  private synchronized List<PendingLoad> nextBatch() {
+    List<PendingLoad> batch = new ArrayList<>(pendingLoads.subList(0, Math.min(resultMapping.getBatchSize(), pendingLoads.size())));
+    pendingLoads.subList(0, batch.size()).clear();
+    return batch;
+  }
+
+  private Object loadLazily(LazyLoad trigger) throws SQLException {
+    return load(nextLazyBatch(trigger), trigger);
+  }
+
+  private synchronized List<PendingLoad> nextLazyBatch(LazyLoad trigger) {
+    final String property = resultMapping.getProperty();
+    final List<PendingLoad> batch = new ArrayList<>();
+    batch.add(trigger.pendingLoad);
+    pendingLoads.remove(trigger.pendingLoad);
+    for (Iterator<PendingLoad> iterator = pendingLoads.iterator(); iterator.hasNext() && batch.size() < resultMapping.getBatchSize();) {
+      PendingLoad pendingLoad = iterator.next();
+      iterator.remove();
+      // skip siblings whose property has been set or loaded in the meantime
+      if (pendingLoad.resultLoaderMap.hasLoader(property)) {
+        batch.add(pendingLoad);
+      }
+    }
+    return batch;
+  }
+
+  private Object load(List<PendingLoad> batch, LazyLoad trigger) throws SQLException {
+    final Map<CacheKey, Object> uniqueKeys = new HashMap<>();
+    for (PendingLoad pendingLoad : batch) {
+      uniqueKeys.putIfAbsent(createParentKey(pendingLoad.key), pendingLoad.key);
+    }
+    final Object parameterObject = wrapKeys(new ArrayList<>(uniqueKeys.values()));
+    final List<Object> rows = trigger == null ? selectList(parameterObject) : trigger.selectList(parameterObject);
+    final Map<CacheKey, List<Object>> rowsByKey = new HashMap<>();
+    for (Object row : rows) {
+      rowsByKey.computeIfAbsent(createRowKey(row), k -> new ArrayList<>()).add(row);
+    }
+    Object triggerValue = null;
+    for (PendingLoad pendingLoad : batch) {
+      List<Object> matches = rowsByKey.get(createParentKey(pendingLoad.key));
+      List<Object> list = matches == null ? new ArrayList<>() : new ArrayList<>(matches);
+      Object value = resultExtractor.extractObjectFromList(list, targetType);
+      if (trigger != null && pendingLoad == trigger.pendingLoad) {
+        // the ResultLoaderMap of the trigger sets the value itself
+        triggerValue = value;
+      } else {
+        if (pendingLoad.resultLoaderMap != null) {
+          pendingLoad.resultLoaderMap.remove(resultMapping.getProperty());
+        }
+        pendingLoad.metaResultObject.setValue(resultMapping.getProperty(), value);
+      }
+    }
+    return triggerValue;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object> selectList(Object parameterObject) throws SQLException {
+    final BoundSql boundSql = mappedStatement.getBoundSql(parameterObject);
+    final CacheKey cacheKey = executor.createCacheKey(mappedStatement, parameterObject, RowBounds.DEFAULT, boundSql);
+    final ResultLoader resultLoader = new ResultLoader(configuration, executor, mappedStatement, parameterObject, List.class, cacheKey, boundSql);
+    return (List<Object>) resultLoader.loadResult();
+  }
+
+  private CacheKey createParentKey(Object key) {
+    CacheKey cacheKey = new CacheKey();
+    if (resultMapping.isCompositeResult()) {
+      MetaObject metaKey = configuration.newMetaObject(key);
+      for (ResultMapping composite : resultMapping.getComposites()) {
+        cacheKey.update(String.valueOf(metaKey.getValue(composite.getProperty())));
+      }
+    } else {
+      cacheKey.update(String.valueOf(key));
+    }
+    return cacheKey;
+  }
+
+  private CacheKey createRowKey(Object row) {
+    CacheKey cacheKey = new CacheKey();
+    MetaObject metaRow = configuration.newMetaObject(row);
+    for (String property : getForeignProperties(row)) {
+      cacheKey.update(String.valueOf(metaRow.getValue(property)));
+    }
+    return cacheKey;
+  }
+
+  private List<String> getForeignProperties(Object row) {
+    if (foreignProperties == null) {
+      final ResultMap resultMap = mappedStatement.getResultMaps().get(0);
+      final List<String> properties = new ArrayList<>();
+      if (resultMapping.getForeignColumn() == null) {
+        for (ResultMapping idMapping : resultMap.getIdResultMappings()) {
+          properties.add(idMapping.getProperty());
+        }
+      } else {
+        for (String column : resultMapping.getForeignColumn().split(",")) {
+          properties.add(resolveForeignProperty(resultMap, column.trim(), row));
+        }
+      }
+      int keyCount = resultMapping.isCompositeResult() ? resultMapping.getComposites().size() : 1;
+      if (properties.size() != keyCount || properties.contains(null)) {
+        throw new ExecutorException("Could not link the rows of '" + mappedStatement.getId() + "' to property '"
+            + resultMapping.getProperty() + "'. Specify a foreignColumn for each column of the batched nested select.");
+      }
+      foreignProperties = Collections.unmodifiableList(properties);
+    }
+    return foreignProperties;
+  }
+
+  private String resolveForeignProperty(ResultMap resultMap, String column, Object row) {
+    for (ResultMapping mapping : resultMap.getResultMappings()) {
+      if (mapping.getColumn() != null && mapping.getColumn().equalsIgnoreCase(column) && mapping.getProperty() != null) {
+        return mapping.getProperty();
+      }
+    }
+    if (row instanceof Map) {
+      return column;
+    }
+    MetaClass metaClass = MetaClass.forClass(row.getClass(), configuration.getReflectorFactory());
+    return metaClass.findProperty(column, configuration.isMapUnderscoreToCamelCase());
+  }
+
+}
@@ -73,16 +73,36 @@ public class ResultLoader {
   }
 
   private <E> List<E> selectList() throws SQLException {
-    Executor localExecutor = executor;
-    if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
-      localExecutor = newExecutor();
-    }
+    Executor localExecutor = openExecutor();
     try {
       return localExecutor.query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
     } finally {
-      if (localExecutor != executor) {
-        localExecutor.close(false);
-      }
+      closeExecutor(localExecutor);
+    }
+  }
+
+  /**
+   * Runs the statement of this loader with a different parameter object.
+   */
+  protected <E> List<E> selectList(Object parameterObject) throws SQLException {
+    Executor localExecutor = openExecutor();
+    try {
+      return localExecutor.query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    } finally {
+      closeExecutor(localExecutor);
+    }
+  }
+
+  private Executor openExecutor() {
+    if (Thread.currentThread().getId() != this.creatorThreadId || executor.isClosed()) {
+      return newExecutor();
+    }
+    return executor;
+  }
+
+  private void closeExecutor(Executor localExecutor) {
+    if (localExecutor != executor) {
+      localExecutor.close(false);
     }
   }
 
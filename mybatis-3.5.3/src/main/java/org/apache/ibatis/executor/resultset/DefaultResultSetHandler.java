@@ -18,15 +18,25 @@ package org.apache.ibatis.executor.resultset;
 import java.lang.reflect.Constructor;
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
@@ -36,6 +46,7 @@ import org.apache.ibatis.cursor.defaults.DefaultCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -54,10 +65,13 @@ import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+import org.apache.ibatis.session.ColumnarResult;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.RowMappingParallelism;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -72,6 +86,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
 
+  private static final int PARALLEL_BATCH_SIZE = 256;
+
   private final Executor executor;
   private final Configuration configuration;
   private final MappedStatement mappedStatement;
@@ -84,17 +100,34 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private final Map<RowKey, Object> nestedResultObjects = new HashMap<>();
+  private final List<Object> rowKeyValues = new ArrayList<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
+  private boolean resultOrdered;
+  // whether the rows are ordered by the ids of each result map, detected once per execution
+  private final Map<String, Boolean> detectedResultOrders = new HashMap<>();
+
+  // rows of simple result maps are mapped in parallel, never for cursors nor by the handlers mapping a batch
+  private boolean mapInParallel;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
 
-  // Cached Automappings
+  // batched nested queries
+  private final Map<CacheKey, BatchResultLoader> pendingBatchLoads = new HashMap<>();
+  private final Map<CacheKey, BatchResultLoader> lazyBatchLoads = new HashMap<>();
+
+  // Cached Automappings, only used when they cannot be shared through the ResultSetLayout
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // Generated row mappers, null when the result map cannot use one
+  private final Map<String, GeneratedRowMapper> rowMappersCache = new HashMap<>();
+
+  // index of the current result set of the statement
+  private int resultSetIndex;
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
@@ -103,7 +136,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
+  static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
     private final TypeHandler<?> typeHandler;
@@ -117,6 +150,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  static class GeneratedRowMapper {
+    private final ResultSetLayout layout;
+    private final Class<?> type;
+    private final RowMapper rowMapper;
+
+    private GeneratedRowMapper(ResultSetLayout layout, Class<?> type, RowMapper rowMapper) {
+      this.layout = layout;
+      this.type = type;
+      this.rowMapper = rowMapper;
+    }
+  }
+
   public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
                                  RowBounds rowBounds) {
     this.executor = executor;
@@ -182,6 +227,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
     final List<Object> multipleResults = new ArrayList<>();
+    mapInParallel = configuration.getRowMappingParallelism() != RowMappingParallelism.NONE;
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
@@ -247,7 +293,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    resultSetIndex = 0;
+    return rs != null ? wrapResultSet(rs) : null;
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -260,7 +307,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           if (rs == null) {
             return getNextResultSet(stmt);
           } else {
-            return new ResultSetWrapper(rs, configuration);
+            resultSetIndex++;
+            return wrapResultSet(rs);
           }
         }
       }
@@ -270,6 +318,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return null;
   }
 
+  private ResultSetWrapper wrapResultSet(ResultSet rs) throws SQLException {
+    final ResultSetMetaData metaData = rs.getMetaData();
+    ResultSetLayout layout = mappedStatement.getResultSetLayout(resultSetIndex);
+    if (layout == null || !layout.matches(metaData)) {
+      layout = new ResultSetLayout(metaData, configuration);
+      mappedStatement.setResultSetLayout(resultSetIndex, layout);
+    }
+    return new ResultSetWrapper(rs, layout);
+  }
+
   private void closeResultSet(ResultSet rs) {
     try {
       if (rs != null) {
@@ -320,13 +378,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-    if (resultMap.hasNestedResultMaps()) {
+    if (resultMap.getType() == ColumnarResult.class) {
+      handleRowValuesForColumnarResult(rsw, resultHandler, rowBounds, parentMapping);
+    } else if (resultMap.hasNestedResultMaps()) {
       ensureNoRowBounds();
+      resultOrdered = isResultOrdered(resultMap, parentMapping);
       checkResultHandler();
       handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
     } else {
       handleRowValuesForSimpleResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
     }
+    loadPendingBatches();
   }
 
   private void ensureNoRowBounds() {
@@ -336,8 +398,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  private boolean isResultOrdered(ResultMap resultMap, ResultMapping parentMapping) {
+    if (mappedStatement.isResultOrdered()) {
+      return true;
+    }
+    if (parentMapping != null || !configuration.isResultOrderedDetectionEnabled() || boundSql == null) {
+      return false;
+    }
+    return detectedResultOrders.computeIfAbsent(resultMap.getId(), id -> detectResultOrder(resultMap));
+  }
+
+  private boolean detectResultOrder(ResultMap resultMap) {
+    final String sql = boundSql.getSql();
+    Boolean ordered = mappedStatement.getDetectedResultOrder(resultMap, sql);
+    if (ordered == null) {
+      ordered = ResultOrderDetector.isOrderedById(sql, resultMap);
+      mappedStatement.setDetectedResultOrder(resultMap, sql, ordered);
+    }
+    return ordered;
+  }
+
   protected void checkResultHandler() {
-    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !mappedStatement.isResultOrdered()) {
+    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !resultOrdered) {
       throw new ExecutorException("Mapped Statements with nested result mappings cannot be safely used with a custom ResultHandler. "
           + "Use safeResultHandlerEnabled=false setting to bypass this check "
           + "or ensure your statement returns ordered data and set resultOrdered=true on it.");
@@ -349,6 +431,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
+    if (mapInParallel && parentMapping == null && !resultMap.hasNestedQueries() && resultMap.getDiscriminator() == null
+        && handleRowValuesInParallel(rsw, resultMap, resultHandler, rowBounds, resultContext)) {
+      return;
+    }
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
@@ -356,6 +442,132 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  //
+  // HANDLE ROWS FOR SIMPLE RESULTMAP IN PARALLEL
+  //
+
+  /**
+   * Maps the first row on this thread, noting the getters the type handlers read the columns with, and the following
+   * rows on the common pool after reading them ahead with the same getters. Returns false when the first row called
+   * methods that cannot be read ahead, so that the remaining rows are mapped sequentially.
+   */
+  private boolean handleRowValuesInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds,
+      DefaultResultContext<Object> resultContext) throws SQLException {
+    final ResultSet resultSet = rsw.getResultSet();
+    if (!shouldProcessMoreRows(resultContext, rowBounds) || resultSet.isClosed() || !resultSet.next()) {
+      return true;
+    }
+    final RowBuffer.Columns columns = new RowBuffer.Columns(resultSet.getMetaData());
+    final RowBuffer.Recorder recorder = new RowBuffer.Recorder(resultSet, columns);
+    final Object firstRowValue = getRowValue(new ResultSetWrapper(recorder.getResultSet(), rsw.getLayout()), resultMap, null);
+    storeObject(resultHandler, resultContext, firstRowValue, null, resultSet);
+    if (!recorder.finish()) {
+      return false;
+    }
+    final boolean ordered = configuration.getRowMappingParallelism() == RowMappingParallelism.ORDERED;
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    final CompletionService<List<Object>> completionService = new ExecutorCompletionService<>(pool);
+    final Deque<Future<List<Object>>> pendingBatches = new ArrayDeque<>();
+    final int maxPendingBatches = pool.getParallelism() * 2;
+    int remainingRows = rowBounds.getLimit() - resultContext.getResultCount();
+    try {
+      while (remainingRows > 0 && !resultContext.isStopped()) {
+        final List<Object[]> rows = new ArrayList<>();
+        while (rows.size() < PARALLEL_BATCH_SIZE && rows.size() < remainingRows && !resultSet.isClosed() && resultSet.next()) {
+          rows.add(RowBuffer.readRow(resultSet, columns));
+        }
+        remainingRows -= rows.size();
+        final boolean lastBatch = rows.size() < PARALLEL_BATCH_SIZE || remainingRows == 0;
+        final Callable<List<Object>> task = () -> mapBatch(rsw.getLayout(), resultMap, RowBuffer.newInstance(rows, columns));
+        if (lastBatch && pendingBatches.isEmpty()) {
+          // nothing to overlap with
+          storeBatch(resultHandler, resultContext, rows.isEmpty() ? Collections.emptyList() : callBatch(task));
+          break;
+        }
+        pendingBatches.add(ordered ? pool.submit(task) : completionService.submit(task));
+        if (lastBatch) {
+          break;
+        }
+        if (pendingBatches.size() >= maxPendingBatches) {
+          storeBatch(resultHandler, resultContext, takeBatch(pendingBatches, ordered ? null : completionService));
+        }
+      }
+      while (!pendingBatches.isEmpty() && !resultContext.isStopped()) {
+        storeBatch(resultHandler, resultContext, takeBatch(pendingBatches, ordered ? null : completionService));
+      }
+    } finally {
+      for (Future<List<Object>> pendingBatch : pendingBatches) {
+        pendingBatch.cancel(false);
+      }
+    }
+    return true;
+  }
+
+  private List<Object> mapBatch(ResultSetLayout layout, ResultMap resultMap, ResultSet rows) throws SQLException {
+    // a handler per batch so that workers do not share any state
+    final DefaultResultSetHandler handler = new DefaultResultSetHandler(executor, mappedStatement, parameterHandler, null, boundSql, RowBounds.DEFAULT);
+    final DefaultResultHandler batchResultHandler = new DefaultResultHandler();
+    handler.handleRowValuesForSimpleResultMap(new ResultSetWrapper(rows, layout), resultMap, batchResultHandler, RowBounds.DEFAULT, null);
+    return batchResultHandler.getResultList();
+  }
+
+  private List<Object> callBatch(Callable<List<Object>> task) throws SQLException {
+    try {
+      return task.call();
+    } catch (SQLException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ExecutorException("Error mapping rows.  Cause: " + e, e);
+    }
+  }
+
+  private List<Object> takeBatch(Deque<Future<List<Object>>> pendingBatches, CompletionService<List<Object>> completionService) throws SQLException {
+    try {
+      final Future<List<Object>> batch;
+      if (completionService == null) {
+        batch = pendingBatches.poll();
+      } else {
+        batch = completionService.take();
+        pendingBatches.remove(batch);
+      }
+      return batch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while mapping rows.", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ExecutorException("Error mapping rows.  Cause: " + cause, cause);
+    }
+  }
+
+  private void storeBatch(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, List<Object> rowValues) {
+    for (Object rowValue : rowValues) {
+      if (resultContext.isStopped()) {
+        return;
+      }
+      callResultHandler(resultHandler, resultContext, rowValue);
+    }
+  }
+
+  private void handleRowValuesForColumnarResult(ResultSetWrapper rsw, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
+      throws SQLException {
+    final ColumnarResult columnarResult = new ColumnarResult(rsw.getColumnNames(), rsw.getJdbcTypes());
+    ResultSet resultSet = rsw.getResultSet();
+    skipRows(resultSet, rowBounds);
+    while (columnarResult.size() < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next()) {
+      columnarResult.addRow(resultSet);
+    }
+    // the whole result set is a single result
+    storeObject(resultHandler, new DefaultResultContext<>(), columnarResult, parentMapping, resultSet);
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -396,18 +608,73 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-      final MetaObject metaObject = configuration.newMetaObject(rowValue);
+      final RowMapper rowMapper = configuration.isRowMapperGenerationEnabled() ? getRowMapper(rsw, resultMap, rowValue, columnPrefix) : null;
       boolean foundValues = this.useConstructorMappings;
-      if (shouldApplyAutomaticMappings(resultMap, false)) {
-        foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+      if (rowMapper != null) {
+        foundValues = rowMapper.map(rowValue, rsw.getResultSet()) || foundValues;
+      } else {
+        final MetaObject metaObject = configuration.newMetaObject(rowValue);
+        if (shouldApplyAutomaticMappings(resultMap, false)) {
+          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+        }
+        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
       }
-      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
       foundValues = lazyLoader.size() > 0 || foundValues;
       rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
     }
     return rowValue;
   }
 
+  //
+  // GENERATED ROW MAPPERS
+  //
+
+  private RowMapper getRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue, String columnPrefix) throws SQLException {
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    final Map<String, GeneratedRowMapper> cache = canShareAutomaticMappings() ? rsw.getLayout().getRowMappers() : rowMappersCache;
+    GeneratedRowMapper generated = cache.get(mapKey);
+    if (generated == null || generated.layout != rsw.getLayout() || generated.type != rowValue.getClass()) {
+      generated = new GeneratedRowMapper(rsw.getLayout(), rowValue.getClass(), createRowMapper(rsw, resultMap, rowValue, columnPrefix));
+      cache.put(mapKey, generated);
+    }
+    return generated.rowMapper;
+  }
+
+  private RowMapper createRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue, String columnPrefix) throws SQLException {
+    if (resultMap.hasNestedQueries() || resultMap.hasNestedResultMaps() || configuration.getObjectWrapperFactory().hasWrapperFor(rowValue)) {
+      return null;
+    }
+    final List<String> columns = new ArrayList<>();
+    final List<String> properties = new ArrayList<>();
+    final List<TypeHandler<?>> typeHandlers = new ArrayList<>();
+    // same order as applyAutomaticMappings and applyPropertyMappings
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, configuration.newMetaObject(rowValue), columnPrefix)) {
+        columns.add(mapping.column);
+        properties.add(mapping.property);
+        typeHandlers.add(mapping.typeHandler);
+      }
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null) {
+        return null;
+      }
+      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+      final String property = propertyMapping.getProperty();
+      if (column != null && property != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+        if (property.indexOf('.') > -1 || property.indexOf('[') > -1) {
+          return null;
+        }
+        columns.add(column);
+        properties.add(property);
+        typeHandlers.add(propertyMapping.getTypeHandler());
+      }
+    }
+    return configuration.getRowMapperGenerator().newRowMapper(configuration.getReflectorFactory(), rowValue.getClass(),
+        columns, properties, typeHandlers, configuration.isCallSettersOnNulls());
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -475,7 +742,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
-    List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
+    final Map<String, List<UnMappedColumnAutoMapping>> cache = canShareAutomaticMappings() ? rsw.getLayout().getAutoMappings() : autoMappingsCache;
+    List<UnMappedColumnAutoMapping> autoMapping = cache.get(mapKey);
     if (autoMapping == null) {
       autoMapping = new ArrayList<>();
       final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
@@ -508,11 +776,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
         }
       }
-      autoMappingsCache.put(mapKey, autoMapping);
+      cache.put(mapKey, autoMapping);
     }
     return autoMapping;
   }
 
+  private boolean canShareAutomaticMappings() {
+    // unknown columns must be reported by every execution
+    return configuration.getAutoMappingUnknownColumnBehavior() == AutoMappingUnknownColumnBehavior.NONE;
+  }
+
   private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
     boolean foundValues = false;
@@ -724,7 +997,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final String nestedQueryId = constructorMapping.getNestedQueryId();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, constructorMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = wrapKeyForBatch(constructorMapping,
+        prepareParameterForNestedQuery(rs, constructorMapping, nestedQueryParameterType, columnPrefix));
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -742,7 +1016,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final String property = propertyMapping.getProperty();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryKey = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = wrapKeyForBatch(propertyMapping, nestedQueryKey);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -751,6 +1026,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (executor.isCached(nestedQuery, key)) {
         executor.deferLoad(nestedQuery, metaResultObject, property, key, targetType);
         value = DEFERRED;
+      } else if (propertyMapping.isBatch() && propertyMapping.isLazy()) {
+        final BatchResultLoader batchResultLoader = getBatchResultLoader(lazyBatchLoads, nestedQuery, propertyMapping);
+        lazyLoader.addLoader(property, metaResultObject,
+            batchResultLoader.addLazyLoad(lazyLoader, metaResultObject, nestedQueryKey, nestedQueryParameterObject, key, nestedBoundSql));
+        value = DEFERRED;
+      } else if (propertyMapping.isBatch()) {
+        addPendingBatchLoad(nestedQuery, propertyMapping, metaResultObject, nestedQueryKey);
+        value = DEFERRED;
       } else {
         final ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
         if (propertyMapping.isLazy()) {
@@ -764,6 +1047,43 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  private Object wrapKeyForBatch(ResultMapping resultMapping, Object nestedQueryKey) {
+    if (nestedQueryKey != null && resultMapping.isBatch()) {
+      // a batched nested select always takes a list of keys
+      return BatchResultLoader.wrapKeys(Collections.singletonList(nestedQueryKey));
+    }
+    return nestedQueryKey;
+  }
+
+  //
+  // BATCHED NESTED QUERY
+  //
+
+  private BatchResultLoader getBatchResultLoader(Map<CacheKey, BatchResultLoader> batchLoads, MappedStatement nestedQuery, ResultMapping propertyMapping) {
+    final CacheKey batchKey = new CacheKey();
+    batchKey.update(nestedQuery.getId());
+    batchKey.update(propertyMapping.getProperty());
+    batchKey.update(propertyMapping.getColumn());
+    return batchLoads.computeIfAbsent(batchKey,
+        k -> new BatchResultLoader(configuration, executor, nestedQuery, propertyMapping, propertyMapping.getJavaType()));
+  }
+
+  private void addPendingBatchLoad(MappedStatement nestedQuery, ResultMapping propertyMapping, MetaObject metaResultObject, Object key) throws SQLException {
+    final BatchResultLoader batchResultLoader = getBatchResultLoader(pendingBatchLoads, nestedQuery, propertyMapping);
+    batchResultLoader.addPendingLoad(metaResultObject, key);
+    if (resultHandler != null) {
+      // a custom result handler receives each object right away
+      batchResultLoader.loadAll();
+    }
+  }
+
+  private void loadPendingBatches() throws SQLException {
+    for (BatchResultLoader batchResultLoader : pendingBatchLoads.values()) {
+      batchResultLoader.loadAll();
+    }
+    pendingBatchLoads.clear();
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -857,10 +1177,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
-      if (mappedStatement.isResultOrdered()) {
+      if (resultOrdered) {
         if (partialObject == null && rowValue != null) {
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -873,7 +1193,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+    if (rowValue != null && resultOrdered && shouldProcessMoreRows(resultContext, rowBounds)) {
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
       previousRowValue = null;
     } else if (rowValue != null) {
@@ -885,7 +1205,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
@@ -909,7 +1229,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
+      if (combinedKey != null) {
         nestedResultObjects.put(combinedKey, rowValue);
       }
     }
@@ -924,7 +1244,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -943,8 +1263,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final RowKey combinedKey = parentRowKey == null ? null : createRowKey(nestedResultMap, rsw, columnPrefix, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -1005,37 +1324,41 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix, RowKey parentRowKey) throws SQLException {
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
+    if (resultMappings.size() == 1 && isColumnForRowKey(resultMappings.get(0))) {
+      // the common case of a single id column, read without collecting the values
+      final ResultMapping resultMapping = resultMappings.get(0);
+      final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
+      if (column == null || !rsw.getMappedColumnNames(resultMap, columnPrefix).contains(column.toUpperCase(Locale.ENGLISH))) {
+        return null;
+      }
+      final Object value = resultMapping.getTypeHandler().getResult(rsw.getResultSet(), column);
+      if (value == null && !configuration.isReturnInstanceForEmptyRow()) {
+        return null;
+      }
+      return RowKey.of(resultMap.getId(), columnPrefix, value, parentRowKey);
+    }
+    final boolean foundValues;
+    rowKeyValues.clear();
     if (resultMappings.isEmpty()) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        foundValues = createRowKeyForMap(rsw, rowKeyValues);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        foundValues = createRowKeyForUnmappedProperties(resultMap, rsw, rowKeyValues, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      foundValues = createRowKeyForMappedProperties(resultMap, rsw, rowKeyValues, resultMappings, columnPrefix);
     }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
+    if (!foundValues) {
+      return null;
     }
-    return cacheKey;
+    return RowKey.of(resultMap.getId(), columnPrefix, rowKeyValues.toArray(), parentRowKey);
   }
 
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
-    }
-    return CacheKey.NULL_CACHE_KEY;
+  private boolean isColumnForRowKey(ResultMapping resultMapping) {
+    return (resultMapping.getNestedResultMapId() == null || resultMapping.getResultSet() != null)
+        && resultMapping.getNestedQueryId() == null;
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1046,13 +1369,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  // the values are kept by position, including nulls, since the columns read only depend on the result map
+  private boolean createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<Object> values, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    boolean foundValues = false;
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
-            prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
+        foundValues = createRowKeyForMappedProperties(nestedResultMap, rsw, values, nestedResultMap.getConstructorResultMappings(),
+            prependPrefix(resultMapping.getColumnPrefix(), columnPrefix)) || foundValues;
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
         final TypeHandler<?> th = resultMapping.getTypeHandler();
@@ -1060,18 +1385,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
           final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+          values.add(value);
+          foundValues = foundValues || value != null || configuration.isReturnInstanceForEmptyRow();
         }
       }
     }
+    return foundValues;
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private boolean createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<Object> values, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+    boolean foundValues = false;
     for (String column : unmappedColumnNames) {
       String property = column;
       if (columnPrefix != null && !columnPrefix.isEmpty()) {
@@ -1084,23 +1409,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
         String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
-        }
+        values.add(value);
+        foundValues = foundValues || value != null;
       }
     }
+    return foundValues;
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private boolean createRowKeyForMap(ResultSetWrapper rsw, List<Object> values) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
+    boolean foundValues = false;
     for (String columnName : columnNames) {
       final String value = rsw.getResultSet().getString(columnName);
-      if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
-      }
+      values.add(value);
+      foundValues = foundValues || value != null;
     }
+    return foundValues;
   }
 
   private void linkObjects(MetaObject metaObject, ResultMapping resultMapping, Object rowValue) {
@@ -0,0 +1,336 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+
+/**
+ * Detects whether the rows of a statement come sorted by the id columns of its top level result map, reading the
+ * outermost ORDER BY clause of the SQL. The rows of each parent object are then contiguous, so it is complete as
+ * soon as a row of another parent is read, as if the statement declared {@code resultOrdered="true"}.
+ * <p>
+ * Only the plain case is recognized: explicit {@code <id>} mappings without a discriminator, ordered by columns
+ * before any other expression. Each ORDER BY column is resolved to the label it has in the outermost select list,
+ * so that a qualified column such as {@code o.id} only matches the id column of the result map when it is the
+ * column selected with that label. Columns that cannot be resolved are never detected.
+ */
+final class ResultOrderDetector {
+
+  private static final String[] CLAUSES_AFTER_ORDER_BY = { "limit", "offset", "fetch", "for", "rows" };
+  private static final String[] CLAUSES_AFTER_FROM = { "where", "group", "having", "window", "union", "intersect", "except",
+      "minus", "order", "limit", "offset", "fetch", "for" };
+  private static final String WILDCARD = "*";
+
+  private ResultOrderDetector() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static boolean isOrderedById(String sql, ResultMap resultMap) {
+    if (resultMap.getDiscriminator() != null) {
+      return false;
+    }
+    final Set<String> idColumns = new HashSet<>();
+    for (ResultMapping idMapping : resultMap.getIdResultMappings()) {
+      if (!idMapping.getFlags().contains(ResultFlag.ID) || idMapping.getColumn() == null
+          || idMapping.getNestedResultMapId() != null || idMapping.getNestedQueryId() != null) {
+        return false;
+      }
+      idColumns.add(idMapping.getColumn().toLowerCase(Locale.ENGLISH));
+    }
+    final List<String> orderBy = parseOrderBy(sql);
+    if (idColumns.isEmpty() || orderBy.size() < idColumns.size()) {
+      return false;
+    }
+    final SelectList selectList = new SelectList(sql.toLowerCase(Locale.ENGLISH));
+    final Set<String> leadingColumns = new HashSet<>();
+    for (String column : orderBy.subList(0, idColumns.size())) {
+      String label = selectList.resolve(column);
+      if (label == null) {
+        return false;
+      }
+      leadingColumns.add(label);
+    }
+    return leadingColumns.equals(idColumns);
+  }
+
+  /**
+   * Returns the lower case column names, qualified as written, of the outermost ORDER BY clause. Expressions are
+   * returned as empty strings.
+   */
+  static List<String> parseOrderBy(String sql) {
+    final String lowerSql = sql.toLowerCase(Locale.ENGLISH);
+    final int start = findOrderBy(lowerSql);
+    final List<String> columns = new ArrayList<>();
+    if (start < 0) {
+      return columns;
+    }
+    int depth = 0;
+    int itemStart = start;
+    for (int i = start; i <= lowerSql.length(); i++) {
+      char c = i < lowerSql.length() ? lowerSql.charAt(i) : ',';
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(lowerSql, i);
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && (c == ',' || isClauseAt(lowerSql, i, CLAUSES_AFTER_ORDER_BY))) {
+        columns.add(toColumn(lowerSql.substring(itemStart, i)));
+        if (c != ',') {
+          break;
+        }
+        itemStart = i + 1;
+      }
+    }
+    return columns;
+  }
+
+  private static int findOrderBy(String sql) {
+    int depth = 0;
+    int found = -1;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(sql, i);
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && c == 'o' && isWordAt(sql, i, "order")) {
+        int j = skipWhitespace(sql, i + 5);
+        if (isWordAt(sql, j, "by")) {
+          found = j + 2;
+        }
+      }
+    }
+    return found;
+  }
+
+  private static String toColumn(String item) {
+    String[] words = item.trim().split("\\s+");
+    String column = words[0];
+    if (column.indexOf('(') >= 0
+        || words.length > 1 && !"asc".equals(words[1]) && !"desc".equals(words[1]) && !"nulls".equals(words[1])) {
+      // an expression, not a column
+      return "";
+    }
+    return unquote(column);
+  }
+
+  private static String unquote(String name) {
+    return name.replace("\"", "").replace("`", "").replace("[", "").replace("]", "");
+  }
+
+  private static String unqualify(String column) {
+    return column.substring(column.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * The columns of the outermost select list by their expression and label.
+   */
+  private static class SelectList {
+
+    private final Map<String, String> labelsByColumn = new HashMap<>();
+    private final Map<String, Integer> labelCounts = new HashMap<>();
+    private final Set<String> wildcards = new HashSet<>();
+    private final Set<String> tableNames = new HashSet<>();
+
+    SelectList(String lowerSql) {
+      final int select = findTopLevelWord(lowerSql, 0, "select");
+      if (select < 0) {
+        return;
+      }
+      int start = skipWhitespace(lowerSql, select + 6);
+      if (isClauseAt(lowerSql, start, new String[] { "distinct", "all" })) {
+        start += lowerSql.startsWith("distinct", start) ? 8 : 3;
+      }
+      final int from = findTopLevelWord(lowerSql, start, "from");
+      final int end = from < 0 ? lowerSql.length() : from;
+      for (String item : splitTopLevel(lowerSql.substring(start, end))) {
+        addItem(item);
+      }
+      if (from >= 0) {
+        int fromEnd = findTopLevelWord(lowerSql, from + 4, CLAUSES_AFTER_FROM);
+        addTableNames(lowerSql.substring(from + 4, fromEnd < 0 ? lowerSql.length() : fromEnd));
+      }
+    }
+
+    private void addItem(String item) {
+      final String[] words = unquote(item.trim()).split("\\s+");
+      final String column;
+      final String label;
+      if (words.length >= 3 && "as".equals(words[words.length - 2])) {
+        column = words.length == 3 ? words[0] : null;
+        label = words[words.length - 1];
+      } else if (words.length == 2 && words[0].indexOf('(') < 0) {
+        column = words[0];
+        label = words[1];
+      } else if (words.length == 1 && words[0].indexOf('(') < 0) {
+        column = words[0];
+        label = unqualify(column);
+      } else {
+        column = null;
+        label = null;
+      }
+      if (WILDCARD.equals(label)) {
+        wildcards.add(column.length() > 1 ? column.substring(0, column.length() - 2) : "");
+        return;
+      }
+      if (label != null) {
+        labelCounts.merge(label, 1, Integer::sum);
+      }
+      if (column != null && label != null) {
+        labelsByColumn.putIfAbsent(column, label);
+      }
+    }
+
+    // the names a qualified column may use, when the select list reads from a single table
+    private void addTableNames(String fromClause) {
+      final StringBuilder topLevel = new StringBuilder();
+      int depth = 0;
+      for (int i = 0; i < fromClause.length(); i++) {
+        char c = fromClause.charAt(i);
+        if (c == '(') {
+          depth++;
+        } else if (c == ')') {
+          depth--;
+        } else if (depth == 0) {
+          topLevel.append(c);
+        }
+      }
+      final String[] words = unquote(topLevel.toString().trim()).split("\\s+");
+      for (String word : words) {
+        if (word.indexOf(',') >= 0 || "join".equals(word)) {
+          return;
+        }
+      }
+      if (words.length > 3 || words.length == 3 && !"as".equals(words[1])) {
+        return;
+      }
+      if (!words[0].isEmpty()) {
+        tableNames.add(unqualify(words[0]));
+      }
+      tableNames.add(words[words.length - 1]);
+    }
+
+    /**
+     * Returns the label of the selected column an ORDER BY column refers to, or <code>null</code> when unknown.
+     */
+    String resolve(String column) {
+      if (column.isEmpty()) {
+        return null;
+      }
+      final int dot = column.lastIndexOf('.');
+      if (dot < 0 && labelCounts.containsKey(column)) {
+        return labelCounts.get(column) == 1 ? column : null;
+      }
+      final String label = labelsByColumn.get(column);
+      if (label != null) {
+        return labelCounts.get(label) == 1 ? label : null;
+      }
+      final String name = unqualify(column);
+      if (labelCounts.containsKey(name) || wildcards.size() != 1) {
+        // another selected column has that label, or the wildcards may select it from several tables
+        return null;
+      }
+      final String qualifier = dot < 0 ? null : column.substring(0, dot);
+      if (wildcards.contains("")) {
+        return qualifier == null || tableNames.contains(qualifier) ? name : null;
+      }
+      return wildcards.contains(qualifier) ? name : null;
+    }
+
+  }
+
+  private static List<String> splitTopLevel(String text) {
+    final List<String> items = new ArrayList<>();
+    int depth = 0;
+    int itemStart = 0;
+    for (int i = 0; i <= text.length(); i++) {
+      char c = i < text.length() ? text.charAt(i) : ',';
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(text, i);
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && c == ',') {
+        items.add(text.substring(itemStart, i));
+        itemStart = i + 1;
+      }
+    }
+    return items;
+  }
+
+  private static int findTopLevelWord(String sql, int start, String... words) {
+    int depth = 0;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(sql, i);
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isClauseAt(sql, i, words)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isClauseAt(String sql, int index, String[] clauses) {
+    for (String clause : clauses) {
+      if (isWordAt(sql, index, clause)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isWordAt(String sql, int index, String word) {
+    if (!sql.startsWith(word, index)) {
+      return false;
+    }
+    boolean startsWord = index == 0 || !Character.isJavaIdentifierPart(sql.charAt(index - 1));
+    int end = index + word.length();
+    boolean endsWord = end == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(end));
+    return startsWord && endsWord;
+  }
+
+  private static int skipWhitespace(String sql, int index) {
+    while (index < sql.length() && Character.isWhitespace(sql.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int skipQuoted(String sql, int index) {
+    int end = sql.indexOf(sql.charAt(index), index + 1);
+    return end < 0 ? sql.length() : end;
+  }
+
+}
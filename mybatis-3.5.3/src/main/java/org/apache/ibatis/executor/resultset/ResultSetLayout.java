@@ -0,0 +1,209 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler.GeneratedRowMapper;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler.UnMappedColumnAutoMapping;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/**
+ * The columns of a result set together with everything resolved from them while mapping rows: type handlers,
+ * mapped and unmapped columns per result map, automatic mappings and generated row mappers.
+ * <p>
+ * A layout is kept by its {@link org.apache.ibatis.mapping.MappedStatement} and shared by all the executions,
+ * from any thread, whose result set has the same column labels and types.
+ */
+public class ResultSetLayout {
+
+  private final TypeHandlerRegistry typeHandlerRegistry;
+  private final boolean useColumnLabel;
+  private final List<String> columnNames = new ArrayList<>();
+  private final List<String> classNames = new ArrayList<>();
+  private final List<JdbcType> jdbcTypes = new ArrayList<>();
+  private final int[] columnTypes;
+  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> mappedColumnNamesMap = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> unMappedColumnNamesMap = new ConcurrentHashMap<>();
+  private final Map<String, List<UnMappedColumnAutoMapping>> autoMappings = new ConcurrentHashMap<>();
+  private final Map<String, GeneratedRowMapper> rowMappers = new ConcurrentHashMap<>();
+
+  public ResultSetLayout(ResultSetMetaData metaData, Configuration configuration) throws SQLException {
+    this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    this.useColumnLabel = configuration.isUseColumnLabel();
+    final int columnCount = metaData.getColumnCount();
+    this.columnTypes = new int[columnCount];
+    for (int i = 1; i <= columnCount; i++) {
+      columnNames.add(useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
+      columnTypes[i - 1] = metaData.getColumnType(i);
+      jdbcTypes.add(JdbcType.forCode(columnTypes[i - 1]));
+      classNames.add(metaData.getColumnClassName(i));
+    }
+  }
+
+  /**
+   * Returns whether a result set with this metadata has the same columns as this layout.
+   */
+  public boolean matches(ResultSetMetaData metaData) throws SQLException {
+    final int columnCount = metaData.getColumnCount();
+    if (columnCount != columnTypes.length) {
+      return false;
+    }
+    for (int i = 1; i <= columnCount; i++) {
+      if (metaData.getColumnType(i) != columnTypes[i - 1]
+          || !columnNames.get(i - 1).equals(useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public List<String> getColumnNames() {
+    return Collections.unmodifiableList(columnNames);
+  }
+
+  public List<String> getClassNames() {
+    return Collections.unmodifiableList(classNames);
+  }
+
+  public List<JdbcType> getJdbcTypes() {
+    return Collections.unmodifiableList(jdbcTypes);
+  }
+
+  public JdbcType getJdbcType(String columnName) {
+    for (int i = 0 ; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+        return jdbcTypes.get(i);
+      }
+    }
+    return null;
+  }
+
+  public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+    final Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.computeIfAbsent(columnName, k -> new ConcurrentHashMap<>());
+    TypeHandler<?> handler = columnHandlers.get(propertyType);
+    if (handler == null) {
+      JdbcType jdbcType = getJdbcType(columnName);
+      handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
+      // Replicate logic of UnknownTypeHandler#resolveTypeHandler
+      // See issue #59 comment 10
+      if (handler == null || handler instanceof UnknownTypeHandler) {
+        final int index = columnNames.indexOf(columnName);
+        final Class<?> javaType = resolveClass(classNames.get(index));
+        if (javaType != null && jdbcType != null) {
+          handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+        } else if (javaType != null) {
+          handler = typeHandlerRegistry.getTypeHandler(javaType);
+        } else if (jdbcType != null) {
+          handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+        }
+      }
+      if (handler == null || handler instanceof UnknownTypeHandler) {
+        handler = new ObjectTypeHandler();
+      }
+      columnHandlers.put(propertyType, handler);
+    }
+    return handler;
+  }
+
+  private Class<?> resolveClass(String className) {
+    try {
+      // #699 className could be null
+      if (className != null) {
+        return Resources.classForName(className);
+      }
+    } catch (ClassNotFoundException e) {
+      // ignore
+    }
+    return null;
+  }
+
+  private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    List<String> mappedColumnNames = new ArrayList<>();
+    List<String> unmappedColumnNames = new ArrayList<>();
+    final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
+    final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
+    for (String columnName : columnNames) {
+      final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
+      if (mappedColumns.contains(upperColumnName)) {
+        mappedColumnNames.add(upperColumnName);
+      } else {
+        unmappedColumnNames.add(columnName);
+      }
+    }
+    unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), Collections.unmodifiableList(unmappedColumnNames));
+    mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), Collections.unmodifiableList(mappedColumnNames));
+  }
+
+  public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+    if (mappedColumnNames == null) {
+      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+      mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+    }
+    return mappedColumnNames;
+  }
+
+  public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+    if (unMappedColumnNames == null) {
+      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+      unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+    }
+    return unMappedColumnNames;
+  }
+
+  private String getMapKey(ResultMap resultMap, String columnPrefix) {
+    return resultMap.getId() + ":" + columnPrefix;
+  }
+
+  private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
+    if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
+      return columnNames;
+    }
+    final Set<String> prefixed = new HashSet<>();
+    for (String columnName : columnNames) {
+      prefixed.add(prefix + columnName);
+    }
+    return prefixed;
+  }
+
+  Map<String, List<UnMappedColumnAutoMapping>> getAutoMappings() {
+    return autoMappings;
+  }
+
+  Map<String, GeneratedRowMapper> getRowMappers() {
+    return rowMappers;
+  }
+
+}
@@ -0,0 +1,549 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+/**
+ * A forward only {@link ResultSet} over rows that have been read from another result set, so that they can be
+ * mapped on a different thread than the one reading the statement results.
+ * <p>
+ * The first row is mapped on the reading thread through a {@link Recorder}, which notes the getter each column is
+ * read with by the type handlers. The following rows are read with the same getters and the buffer returns their
+ * values as they are, so the type handlers get what the driver returns. BLOBs, CLOBs and streams are read into
+ * memory as they do not outlive the original result set. The type handlers must read the same columns with the same
+ * getters for every row; any other getter, and any other method, throws an {@link SQLFeatureNotSupportedException}.
+ */
+final class RowBuffer implements InvocationHandler {
+
+  // the getters whose value can be read ahead by the reading thread, besides getObject(int, Class)
+  // and getBigDecimal(int, int)
+  private static final Set<String> CAPTURED_GETTERS = new HashSet<>(Arrays.asList(
+      "getString", "getNString", "getBoolean", "getByte", "getShort", "getInt", "getLong", "getFloat", "getDouble",
+      "getBigDecimal", "getBytes", "getDate", "getTime", "getTimestamp", "getObject", "getURL",
+      "getBlob", "getClob", "getBinaryStream", "getAsciiStream", "getCharacterStream", "getNCharacterStream"));
+  // the other methods the type handlers may call, which behave the same on the buffer
+  private static final Set<String> SUPPORTED_METHODS = new HashSet<>(Arrays.asList(
+      "wasNull", "getMetaData", "findColumn", "isClosed", "getType", "getConcurrency", "getWarnings", "clearWarnings",
+      "isWrapperFor"));
+  private static final Set<String> SUPPORTED_METADATA_METHODS = new HashSet<>(Arrays.asList(
+      "getColumnCount", "getColumnLabel", "getColumnName", "getColumnType", "getColumnTypeName", "getColumnClassName",
+      "isWrapperFor"));
+
+  private final List<Object[]> rows;
+  private final Columns columns;
+  private int rowIndex = -1;
+  private boolean wasNull;
+  private boolean closed;
+
+  /**
+   * The column labels, metadata and getters shared by all the buffers of a result set. The metadata is copied when
+   * the result set is opened, so that the threads mapping the rows never call the driver.
+   */
+  static final class Columns implements InvocationHandler {
+    private final int columnCount;
+    private final String[] labels;
+    private final String[] names;
+    private final int[] types;
+    private final String[] typeNames;
+    private final String[] classNames;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private final ResultSetMetaData metaData;
+    // set by the recorder before any row is read ahead
+    private Getter[][] getters;
+    private int getterCount;
+
+    Columns(ResultSetMetaData metaData) throws SQLException {
+      this.columnCount = metaData.getColumnCount();
+      this.labels = new String[columnCount];
+      this.names = new String[columnCount];
+      this.types = new int[columnCount];
+      this.typeNames = new String[columnCount];
+      this.classNames = new String[columnCount];
+      for (int i = columnCount; i > 0; i--) {
+        labels[i - 1] = metaData.getColumnLabel(i);
+        names[i - 1] = metaData.getColumnName(i);
+        types[i - 1] = metaData.getColumnType(i);
+        typeNames[i - 1] = metaData.getColumnTypeName(i);
+        classNames[i - 1] = metaData.getColumnClassName(i);
+        // the first column with a given label wins, as specified by ResultSet
+        columnIndexes.put(labels[i - 1].toUpperCase(Locale.ENGLISH), i);
+      }
+      this.metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+          new Class[]{ResultSetMetaData.class}, this);
+    }
+
+    int getColumnCount() {
+      return columnCount;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String name = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        if ("equals".equals(name)) {
+          return proxy == args[0];
+        }
+        return "hashCode".equals(name) ? System.identityHashCode(proxy) : "RowBuffer.Columns" + Arrays.toString(labels);
+      }
+      switch (name) {
+        case "getColumnCount":
+          return columnCount;
+        case "isWrapperFor":
+          return ((Class<?>) args[0]).isInstance(proxy);
+        case "unwrap":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return proxy;
+          }
+          throw new SQLException("The metadata of rows mapped in parallel cannot be unwrapped to " + args[0]);
+        default:
+          break;
+      }
+      if (args == null || args.length != 1 || !(args[0] instanceof Integer)) {
+        throw unsupported(name);
+      }
+      final int column = (Integer) args[0];
+      if (column < 1 || column > columnCount) {
+        throw new SQLException("Invalid column index: " + column);
+      }
+      switch (name) {
+        case "getColumnLabel":
+          return labels[column - 1];
+        case "getColumnName":
+          return names[column - 1];
+        case "getColumnType":
+          return types[column - 1];
+        case "getColumnTypeName":
+          return typeNames[column - 1];
+        case "getColumnClassName":
+          return classNames[column - 1];
+        default:
+          throw unsupported(name);
+      }
+    }
+
+    private Integer findColumn(String columnLabel) {
+      return columnIndexes.get(columnLabel.toUpperCase(Locale.ENGLISH));
+    }
+
+    private static SQLException unsupported(String name) {
+      return new SQLFeatureNotSupportedException("ResultSetMetaData." + name + " is not supported on rows mapped in parallel.");
+    }
+  }
+
+  /**
+   * A getter a column is read with, and the index of its value in the rows.
+   */
+  private static final class Getter {
+    private final int column;
+    private final String name;
+    // the type of getObject(int, Class) or the scale of getBigDecimal(int, int)
+    private final Object argument;
+    private final int index;
+
+    private Getter(int column, String name, Object argument, int index) {
+      this.column = column;
+      this.name = name;
+      this.argument = argument;
+      this.index = index;
+    }
+
+    private boolean matches(String name, Object[] args) {
+      return this.name.equals(name) && (args.length == 1 ? argument == null : args[1].equals(argument));
+    }
+
+    @SuppressWarnings("deprecation")
+    private Object read(ResultSet rs) throws SQLException {
+      final Object value;
+      switch (name) {
+        case "getString":
+          value = rs.getString(column);
+          break;
+        case "getNString":
+          value = rs.getNString(column);
+          break;
+        case "getBoolean":
+          value = rs.getBoolean(column);
+          break;
+        case "getByte":
+          value = rs.getByte(column);
+          break;
+        case "getShort":
+          value = rs.getShort(column);
+          break;
+        case "getInt":
+          value = rs.getInt(column);
+          break;
+        case "getLong":
+          value = rs.getLong(column);
+          break;
+        case "getFloat":
+          value = rs.getFloat(column);
+          break;
+        case "getDouble":
+          value = rs.getDouble(column);
+          break;
+        case "getBigDecimal":
+          value = argument == null ? rs.getBigDecimal(column) : rs.getBigDecimal(column, (Integer) argument);
+          break;
+        case "getBytes":
+          value = rs.getBytes(column);
+          break;
+        case "getDate":
+          value = rs.getDate(column);
+          break;
+        case "getTime":
+          value = rs.getTime(column);
+          break;
+        case "getTimestamp":
+          value = rs.getTimestamp(column);
+          break;
+        case "getObject":
+          value = argument == null ? rs.getObject(column) : rs.getObject(column, (Class<?>) argument);
+          break;
+        case "getURL":
+          value = rs.getURL(column);
+          break;
+        case "getBlob":
+          value = rs.getBlob(column);
+          break;
+        case "getClob":
+          value = rs.getClob(column);
+          break;
+        case "getBinaryStream":
+          value = rs.getBinaryStream(column);
+          break;
+        case "getAsciiStream":
+          value = rs.getAsciiStream(column);
+          break;
+        case "getCharacterStream":
+          value = rs.getCharacterStream(column);
+          break;
+        case "getNCharacterStream":
+          value = rs.getNCharacterStream(column);
+          break;
+        default:
+          throw new IllegalStateException("Unexpected getter " + name);
+      }
+      return rs.wasNull() ? null : readAhead(value);
+    }
+  }
+
+  /**
+   * Forwards the calls made while the first row of a result set is mapped and notes the getters each column is read
+   * with, so that the following rows can be read ahead with the same getters.
+   */
+  static final class Recorder implements InvocationHandler {
+    private final ResultSet resultSet;
+    private final Columns columns;
+    private final ResultSet proxy;
+    private final List<List<Getter>> getters = new ArrayList<>();
+    private int getterCount;
+    private boolean readAhead = true;
+
+    Recorder(ResultSet resultSet, Columns columns) {
+      this.resultSet = resultSet;
+      this.columns = columns;
+      for (int i = 0; i < columns.columnCount; i++) {
+        getters.add(new ArrayList<>());
+      }
+      this.proxy = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[]{ResultSet.class}, this);
+    }
+
+    ResultSet getResultSet() {
+      return proxy;
+    }
+
+    /**
+     * Returns whether the following rows can be read ahead, that is whether the first row only called the methods
+     * supported by the buffer. The getters are then shared through the columns.
+     */
+    boolean finish() {
+      if (readAhead) {
+        columns.getters = new Getter[columns.columnCount][];
+        for (int i = 0; i < columns.columnCount; i++) {
+          columns.getters[i] = getters.get(i).toArray(new Getter[0]);
+        }
+        columns.getterCount = getterCount;
+      }
+      return readAhead;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String name = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        if ("equals".equals(name)) {
+          return proxy == args[0];
+        }
+        return "hashCode".equals(name) ? System.identityHashCode(proxy) : "RowBuffer.Recorder[" + resultSet + "]";
+      }
+      final Object result = forward(resultSet, method, args);
+      if (isColumnGetter(name, args)) {
+        record(name, args);
+      } else if ("getMetaData".equals(name)) {
+        return recordMetaData((ResultSetMetaData) result);
+      } else if (!SUPPORTED_METHODS.contains(name)) {
+        readAhead = false;
+      }
+      return result;
+    }
+
+    private void record(String name, Object[] args) {
+      final Integer column = args[0] instanceof String ? columns.findColumn((String) args[0]) : (Integer) args[0];
+      if (column == null || column < 1 || column > columns.columnCount || !isCapturedGetter(name, args)) {
+        readAhead = false;
+        return;
+      }
+      final List<Getter> columnGetters = getters.get(column - 1);
+      for (Getter getter : columnGetters) {
+        if (getter.matches(name, args)) {
+          return;
+        }
+      }
+      columnGetters.add(new Getter(column, name, args.length == 2 ? args[1] : null, getterCount++));
+    }
+
+    private ResultSetMetaData recordMetaData(ResultSetMetaData metaData) {
+      return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+          new Class[]{ResultSetMetaData.class}, (metaDataProxy, method, args) -> {
+            if (!Object.class.equals(method.getDeclaringClass()) && !SUPPORTED_METADATA_METHODS.contains(method.getName())) {
+              readAhead = false;
+            }
+            return forward(metaData, method, args);
+          });
+    }
+
+    private static boolean isColumnGetter(String name, Object[] args) {
+      return name.startsWith("get") && args != null && args.length > 0
+          && (args[0] instanceof Integer || args[0] instanceof String);
+    }
+
+    private static boolean isCapturedGetter(String name, Object[] args) {
+      if (args.length == 1) {
+        return CAPTURED_GETTERS.contains(name);
+      }
+      // the getters taking a Calendar or a type map are not read ahead
+      return args.length == 2 && ("getObject".equals(name) && args[1] instanceof Class
+          || "getBigDecimal".equals(name) && args[1] instanceof Integer);
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  private RowBuffer(List<Object[]> rows, Columns columns) {
+    this.rows = rows;
+    this.columns = columns;
+  }
+
+  static ResultSet newInstance(List<Object[]> rows, Columns columns) {
+    InvocationHandler handler = new RowBuffer(rows, columns);
+    ClassLoader cl = ResultSet.class.getClassLoader();
+    return (ResultSet) Proxy.newProxyInstance(cl, new Class[]{ResultSet.class}, handler);
+  }
+
+  /**
+   * Reads the values of the current row of a result set with the getters noted by the recorder.
+   */
+  static Object[] readRow(ResultSet rs, Columns columns) throws SQLException {
+    final Object[] row = new Object[columns.getterCount];
+    // the columns are read in order, as some drivers require
+    for (Getter[] columnGetters : columns.getters) {
+      for (Getter getter : columnGetters) {
+        row[getter.index] = getter.read(rs);
+      }
+    }
+    return row;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    final String name = method.getName();
+    if (Object.class.equals(method.getDeclaringClass())) {
+      if ("equals".equals(name)) {
+        return proxy == args[0];
+      }
+      return "hashCode".equals(name) ? System.identityHashCode(proxy) : "RowBuffer[" + rows.size() + " rows]";
+    }
+    switch (name) {
+      case "next":
+        checkOpen();
+        return ++rowIndex < rows.size();
+      case "close":
+        closed = true;
+        return null;
+      case "isClosed":
+        return closed;
+      case "wasNull":
+        return wasNull;
+      case "getType":
+        return ResultSet.TYPE_FORWARD_ONLY;
+      case "getConcurrency":
+        return ResultSet.CONCUR_READ_ONLY;
+      case "getMetaData":
+        return columns.metaData;
+      case "getWarnings":
+        return null;
+      case "clearWarnings":
+        return null;
+      case "findColumn":
+        return findColumn((String) args[0]);
+      case "isWrapperFor":
+        return ((Class<?>) args[0]).isInstance(proxy);
+      default:
+        if (Recorder.isColumnGetter(name, args)) {
+          return getValue(method, args);
+        }
+        throw unsupported(name);
+    }
+  }
+
+  private Object getValue(Method method, Object[] args) throws SQLException {
+    checkOpen();
+    if (rowIndex < 0 || rowIndex >= rows.size()) {
+      throw new SQLException("The result set is not positioned on a row.");
+    }
+    final int columnIndex = args[0] instanceof String ? findColumn((String) args[0]) : (Integer) args[0];
+    if (columnIndex < 1 || columnIndex > columns.columnCount) {
+      throw new SQLException("Invalid column index: " + columnIndex);
+    }
+    for (Getter getter : columns.getters[columnIndex - 1]) {
+      if (getter.matches(method.getName(), args)) {
+        final Object value = rows.get(rowIndex)[getter.index];
+        wasNull = value == null;
+        return wasNull ? nullValue(method.getReturnType()) : replay(value, method.getReturnType());
+      }
+    }
+    throw new SQLFeatureNotSupportedException("ResultSet." + method.getName() + " was not called on column "
+        + columns.labels[columnIndex - 1] + " of the first row, so it cannot be called on the rows mapped in parallel."
+        + " The type handlers must read the same columns with the same getters for every row.");
+  }
+
+  private int findColumn(String columnLabel) throws SQLException {
+    Integer index = columns.findColumn(columnLabel);
+    if (index == null) {
+      throw new SQLException("Column '" + columnLabel + "' not found.");
+    }
+    return index;
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("The result set is closed.");
+    }
+  }
+
+  private static SQLException unsupported(String name) {
+    return new SQLFeatureNotSupportedException("ResultSet." + name + " is not supported on rows mapped in parallel.");
+  }
+
+  // the values that do not outlive the original result set are read into memory
+  private static Object readAhead(Object value) throws SQLException {
+    if (value instanceof NClob) {
+      // a SerialClob is not an NClob
+      return value;
+    } else if (value instanceof Blob) {
+      Blob blob = (Blob) value;
+      return new SerialBlob(blob.getBytes(1, (int) blob.length()));
+    } else if (value instanceof Clob) {
+      Clob clob = (Clob) value;
+      return new SerialClob(clob.getSubString(1, (int) clob.length()).toCharArray());
+    }
+    try {
+      if (value instanceof InputStream) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n; (n = ((InputStream) value).read(buffer)) != -1;) {
+          out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+      } else if (value instanceof Reader) {
+        StringBuilder out = new StringBuilder();
+        char[] buffer = new char[8192];
+        for (int n; (n = ((Reader) value).read(buffer)) != -1;) {
+          out.append(buffer, 0, n);
+        }
+        return out.toString();
+      }
+    } catch (IOException e) {
+      throw new SQLException("Could not read a stream of the result set.", e);
+    }
+    return value;
+  }
+
+  private static Object replay(Object value, Class<?> type) {
+    if (type == InputStream.class && value instanceof byte[]) {
+      return new ByteArrayInputStream((byte[]) value);
+    } else if (type == Reader.class && value instanceof String) {
+      return new StringReader((String) value);
+    }
+    return value;
+  }
+
+  // what the driver returns for a SQL NULL
+  private static Object nullValue(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return null;
+    } else if (type == boolean.class) {
+      return false;
+    } else if (type == byte.class) {
+      return (byte) 0;
+    } else if (type == short.class) {
+      return (short) 0;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == float.class) {
+      return 0F;
+    }
+    return 0D;
+  }
+
+}
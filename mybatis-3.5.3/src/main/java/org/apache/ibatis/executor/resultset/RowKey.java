@@ -0,0 +1,129 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Identifies the object built from a row for a nested result map, replacing a
+ * {@link org.apache.ibatis.cache.CacheKey} that would retain a list with the result map id, every column name and
+ * every value.
+ * <p>
+ * The columns read for a key only depend on the result map, the column prefix and the result set, so a key holds
+ * their values by position. A single integral id is kept as a {@code long}. The key of a nested object refers to
+ * the key of its parent instead of copying it.
+ */
+final class RowKey {
+
+  private final String resultMapId;
+  private final String columnPrefix;
+  private final RowKey parent;
+  private final boolean numeric;
+  private final long number;
+  private final Object value;
+  private final Object[] values;
+  private final int hashCode;
+
+  private RowKey(String resultMapId, String columnPrefix, RowKey parent, boolean numeric, long number, Object value, Object[] values) {
+    this.resultMapId = resultMapId;
+    this.columnPrefix = columnPrefix;
+    this.parent = parent;
+    this.numeric = numeric;
+    this.number = number;
+    this.value = value;
+    this.values = values;
+    int hash = resultMapId.hashCode();
+    hash = 31 * hash + (columnPrefix == null ? 0 : columnPrefix.hashCode());
+    if (numeric) {
+      hash = 31 * hash + Long.hashCode(number);
+    } else if (values == null) {
+      hash = 31 * hash + ArrayUtil.hashCode(value);
+    } else {
+      for (Object each : values) {
+        hash = 31 * hash + ArrayUtil.hashCode(each);
+      }
+    }
+    this.hashCode = 31 * hash + (parent == null ? 0 : parent.hashCode);
+  }
+
+  static RowKey of(String resultMapId, String columnPrefix, Object value, RowKey parent) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return new RowKey(resultMapId, columnPrefix, parent, true, ((Number) value).longValue(), null, null);
+    }
+    return new RowKey(resultMapId, columnPrefix, parent, false, 0, value, null);
+  }
+
+  static RowKey of(String resultMapId, String columnPrefix, Object[] values, RowKey parent) {
+    return new RowKey(resultMapId, columnPrefix, parent, false, 0, null, values);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof RowKey)) {
+      return false;
+    }
+    RowKey other = (RowKey) object;
+    if (hashCode != other.hashCode || numeric != other.numeric || number != other.number
+        || !resultMapId.equals(other.resultMapId)
+        || (columnPrefix == null ? other.columnPrefix != null : !columnPrefix.equals(other.columnPrefix))
+        || !ArrayUtil.equals(value, other.value) || !equalValues(values, other.values)) {
+      return false;
+    }
+    return parent == null ? other.parent == null : parent.equals(other.parent);
+  }
+
+  private static boolean equalValues(Object[] values, Object[] otherValues) {
+    if (values == null || otherValues == null) {
+      return values == otherValues;
+    }
+    if (values.length != otherValues.length) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!ArrayUtil.equals(values[i], otherValues[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(resultMapId);
+    if (columnPrefix != null) {
+      builder.append(':').append(columnPrefix);
+    }
+    if (numeric) {
+      builder.append(':').append(number);
+    } else if (values == null) {
+      builder.append(':').append(ArrayUtil.toString(value));
+    } else {
+      for (Object each : values) {
+        builder.append(':').append(ArrayUtil.toString(each));
+      }
+    }
+    return parent == null ? builder.toString() : builder.append(" < ").append(parent).toString();
+  }
+
+}
@@ -0,0 +1,32 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Sets the mapped columns of the current row on a result object without going through a
+ * {@link org.apache.ibatis.reflection.MetaObject}. Implementations are generated by {@link RowMapperGenerator}.
+ */
+public interface RowMapper {
+
+  /**
+   * Returns whether any of the mapped columns was not null.
+   */
+  boolean map(Object resultObject, ResultSet rs) throws SQLException;
+
+}
@@ -0,0 +1,277 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeReference;
+
+/**
+ * Generates with javassist a {@link RowMapper} class that reads each mapped column with its type handler and
+ * calls the setter of the property directly. Primitive properties are read without boxing when their type handler
+ * implements the matching {@link PrimitiveTypeHandler} interface in the class that declares its
+ * <code>getNullableResult</code> method.
+ * <p>
+ * Classes are cached by result type and mapped properties, so all the queries returning the same column layout
+ * share one class. When a property cannot be set through a public setter whose parameter type accepts the
+ * values of its type handler, no class is generated and the rows are mapped with a MetaObject as usual.
+ */
+public class RowMapperGenerator {
+
+  private static final Log log = LogFactory.getLog(RowMapperGenerator.class);
+
+  private final ConcurrentMap<String, Optional<Constructor<?>>> constructors = new ConcurrentHashMap<>();
+  private static final AtomicInteger classCounter = new AtomicInteger();
+
+  /**
+   * Returns a row mapper that sets each property from the column at the same index, or {@code null} when no row
+   * mapper can be generated for them.
+   */
+  public RowMapper newRowMapper(ReflectorFactory reflectorFactory, Class<?> type, List<String> columns, List<String> properties,
+                                List<TypeHandler<?>> typeHandlers, boolean callSettersOnNulls) {
+    final Method[] setters = findSetters(reflectorFactory, type, properties, typeHandlers);
+    if (setters == null) {
+      return null;
+    }
+    final boolean[] primitives = new boolean[setters.length];
+    final StringBuilder key = new StringBuilder(type.getName()).append(':').append(callSettersOnNulls);
+    for (int i = 0; i < setters.length; i++) {
+      final Class<?> setterType = setters[i].getParameterTypes()[0];
+      primitives[i] = setterType.isPrimitive() && readsPrimitives(typeHandlers.get(i), setterType);
+      key.append(':').append(setters[i].getName()).append('(').append(setterType.getName()).append(')');
+      if (primitives[i]) {
+        key.append('!');
+      }
+    }
+    final Optional<Constructor<?>> constructor = constructors.computeIfAbsent(key.toString(),
+        k -> Optional.ofNullable(generate(type, setters, primitives, callSettersOnNulls)));
+    if (!constructor.isPresent()) {
+      return null;
+    }
+    try {
+      return (RowMapper) constructor.get().newInstance(typeHandlers.toArray(new TypeHandler[0]), columns.toArray(new String[0]));
+    } catch (ReflectiveOperationException e) {
+      log.debug("Could not instantiate row mapper for " + type.getName() + ". Cause: " + e);
+      return null;
+    }
+  }
+
+  private static Method[] findSetters(ReflectorFactory reflectorFactory, Class<?> type, List<String> properties, List<TypeHandler<?>> typeHandlers) {
+    // the row mapper is defined in the package of the type, so the type itself does not need to be public
+    if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      return null;
+    }
+    final Reflector reflector = reflectorFactory.findForClass(type);
+    final Method[] setters = new Method[properties.size()];
+    for (int i = 0; i < setters.length; i++) {
+      final String property = properties.get(i);
+      if (!reflector.hasSetter(property)) {
+        return null;
+      }
+      final Class<?> setterType = reflector.getSetterType(property);
+      final Method setter = findSetter(type, property, setterType);
+      if (setter == null || !acceptsValuesOf(setterType, typeHandlers.get(i))) {
+        return null;
+      }
+      setters[i] = setter;
+    }
+    return setters;
+  }
+
+  private static Method findSetter(Class<?> type, String property, Class<?> setterType) {
+    for (Method method : type.getMethods()) {
+      if (method.getParameterCount() == 1
+          && !Modifier.isStatic(method.getModifiers())
+          && PropertyNamer.isSetter(method.getName())
+          && method.getParameterTypes()[0] == setterType
+          && property.equals(PropertyNamer.methodToProperty(method.getName()))) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private static boolean acceptsValuesOf(Class<?> setterType, TypeHandler<?> typeHandler) {
+    if (!(typeHandler instanceof TypeReference)) {
+      return false;
+    }
+    final Type rawType = ((TypeReference<?>) typeHandler).getRawType();
+    return rawType instanceof Class && box(setterType).isAssignableFrom((Class<?>) rawType) && isPublic(box(setterType));
+  }
+
+  private static boolean isPublic(Class<?> type) {
+    for (Class<?> c = type; c != null; c = c.getDeclaringClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Constructor<?> generate(Class<?> type, Method[] setters, boolean[] primitives, boolean callSettersOnNulls) {
+    final String className = type.getName() + "$$RowMapper$$" + classCounter.incrementAndGet();
+    try {
+      final ClassPool pool = new ClassPool(true);
+      pool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+      pool.appendClassPath(new LoaderClassPath(RowMapper.class.getClassLoader()));
+      final CtClass ctClass = pool.makeClass(className);
+      ctClass.addInterface(pool.get(RowMapper.class.getName()));
+      ctClass.addField(CtField.make("private final " + TypeHandler.class.getName() + "[] typeHandlers;", ctClass));
+      ctClass.addField(CtField.make("private final String[] columns;", ctClass));
+      ctClass.addConstructor(CtNewConstructor.make("public " + ctClass.getSimpleName() + "("
+          + TypeHandler.class.getName() + "[] typeHandlers, String[] columns) { this.typeHandlers = typeHandlers; this.columns = columns; }", ctClass));
+      ctClass.addMethod(CtNewMethod.make(mapMethodSource(type, setters, primitives, callSettersOnNulls), ctClass));
+      final Class<?> rowMapperClass = ctClass.toClass(type);
+      ctClass.detach();
+      return rowMapperClass.getConstructor(TypeHandler[].class, String[].class);
+    } catch (Exception | LinkageError e) {
+      log.debug("Could not generate row mapper for " + type.getName() + ". Cause: " + e);
+      return null;
+    }
+  }
+
+  private static String mapMethodSource(Class<?> type, Method[] setters, boolean[] primitives, boolean callSettersOnNulls) {
+    final StringBuilder source = new StringBuilder();
+    source.append("public boolean map(Object resultObject, java.sql.ResultSet rs) throws java.sql.SQLException {\n");
+    source.append("  ").append(type.getName()).append(" target = (").append(type.getName()).append(") resultObject;\n");
+    source.append("  boolean foundValues = false;\n");
+    source.append("  Object value;\n");
+    for (int i = 0; i < setters.length; i++) {
+      final Class<?> setterType = setters[i].getParameterTypes()[0];
+      if (primitives[i]) {
+        // read without boxing, a SQL NULL leaves the property untouched like a null value would
+        final String accessor = "get" + Character.toUpperCase(setterType.getName().charAt(0)) + setterType.getName().substring(1);
+        source.append("  ").append(setterType.getName()).append(" value").append(i).append(" = ((")
+            .append(primitiveTypeHandlerFor(setterType).getName()).append(") typeHandlers[").append(i).append("]).")
+            .append(accessor).append("(rs, columns[").append(i).append("]);\n");
+        source.append("  if (!rs.wasNull()) {\n");
+        source.append("    foundValues = true;\n");
+        source.append("    target.").append(setters[i].getName()).append("(value").append(i).append(");\n");
+        source.append("  }\n");
+        continue;
+      }
+      source.append("  value = typeHandlers[").append(i).append("].getResult(rs, columns[").append(i).append("]);\n");
+      source.append("  if (value != null) {\n");
+      source.append("    foundValues = true;\n");
+      source.append("    target.").append(setters[i].getName()).append('(').append(unbox(setterType, "value")).append(");\n");
+      source.append("  }");
+      if (callSettersOnNulls && !setterType.isPrimitive()) {
+        // gcode issue #377, call setter on nulls (value is not 'found')
+        source.append(" else {\n    target.").append(setters[i].getName()).append("((").append(typeName(setterType)).append(") null);\n  }");
+      }
+      source.append('\n');
+    }
+    source.append("  return foundValues;\n}");
+    return source.toString();
+  }
+
+  /**
+   * Returns whether the handler reads the primitive values with the same code as the nullable ones. A subclass of a
+   * built-in handler that only overrides <code>getNullableResult</code> would otherwise be bypassed.
+   */
+  private static boolean readsPrimitives(TypeHandler<?> typeHandler, Class<?> type) {
+    final Class<?> primitiveTypeHandler = primitiveTypeHandlerFor(type);
+    if (!primitiveTypeHandler.isInstance(typeHandler)) {
+      return false;
+    }
+    try {
+      final Method getter = primitiveTypeHandler.getMethods()[0];
+      final Class<?> handlerType = typeHandler.getClass();
+      return handlerType.getMethod(getter.getName(), getter.getParameterTypes()).getDeclaringClass()
+          == handlerType.getMethod("getNullableResult", ResultSet.class, String.class).getDeclaringClass();
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static Class<?> primitiveTypeHandlerFor(Class<?> type) {
+    if (type == int.class) {
+      return PrimitiveTypeHandler.OfInt.class;
+    } else if (type == long.class) {
+      return PrimitiveTypeHandler.OfLong.class;
+    } else if (type == boolean.class) {
+      return PrimitiveTypeHandler.OfBoolean.class;
+    } else if (type == double.class) {
+      return PrimitiveTypeHandler.OfDouble.class;
+    } else if (type == float.class) {
+      return PrimitiveTypeHandler.OfFloat.class;
+    } else if (type == short.class) {
+      return PrimitiveTypeHandler.OfShort.class;
+    } else if (type == byte.class) {
+      return PrimitiveTypeHandler.OfByte.class;
+    } else {
+      // no primitive handler for char
+      return Void.class;
+    }
+  }
+
+  private static String unbox(Class<?> type, String variable) {
+    if (type.isPrimitive()) {
+      return "((" + box(type).getName() + ") " + variable + ")." + type.getName() + "Value()";
+    }
+    return "(" + typeName(type) + ") " + variable;
+  }
+
+  private static String typeName(Class<?> type) {
+    return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+  }
+
+  private static Class<?> box(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    } else if (type == int.class) {
+      return Integer.class;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == boolean.class) {
+      return Boolean.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == byte.class) {
+      return Byte.class;
+    } else {
+      return Character.class;
+    }
+  }
+
+}
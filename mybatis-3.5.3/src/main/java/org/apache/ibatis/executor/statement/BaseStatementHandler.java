@@ -22,6 +22,7 @@ import java.sql.Statement;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.dialect.Pagination;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
@@ -88,6 +89,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
       statement = instantiateStatement(connection);
       setStatementTimeout(statement, transactionTimeout);
       setFetchSize(statement);
+      setMaxRows(statement);
       return statement;
     } catch (SQLException e) {
       closeStatement(statement);
@@ -125,6 +127,14 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  protected void setMaxRows(Statement stmt) throws SQLException {
+    // the driver does not need to fetch the rows after the limit of the row bounds
+    int maxRows = Pagination.getMaxRows(mappedStatement, rowBounds);
+    if (maxRows > 0) {
+      stmt.setMaxRows(maxRows);
+    }
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
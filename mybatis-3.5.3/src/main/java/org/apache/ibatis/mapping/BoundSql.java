@@ -39,14 +39,32 @@ public class BoundSql {
   private final List<ParameterMapping> parameterMappings;
   private final Object parameterObject;
   private final Map<String, Object> additionalParameters;
-  private final MetaObject metaParameters;
+  private final Configuration configuration;
+  private MetaObject metaParameters;
 
   public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Object parameterObject) {
+    this(configuration, sql, parameterMappings, parameterObject, new HashMap<>());
+  }
+
+  /**
+   * Creates a BoundSql whose additional parameters are the given map, which is used as is rather than copied.
+   */
+  public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Object parameterObject,
+      Map<String, Object> additionalParameters) {
     this.sql = sql;
     this.parameterMappings = parameterMappings;
     this.parameterObject = parameterObject;
-    this.additionalParameters = new HashMap<>();
-    this.metaParameters = configuration.newMetaObject(additionalParameters);
+    this.additionalParameters = additionalParameters;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Returns a copy of this BoundSql with another SQL and parameter mappings. Its additional parameters are the given
+   * ones over the ones of this BoundSql, which are not modified.
+   */
+  public BoundSql withSql(String sql, List<ParameterMapping> parameterMappings, Map<String, Object> additionalParameters) {
+    return new BoundSql(configuration, sql, parameterMappings, parameterObject,
+        new LayeredParameters(additionalParameters, this.additionalParameters));
   }
 
   public String getSql() {
@@ -61,16 +79,53 @@ public class BoundSql {
     return parameterObject;
   }
 
+  public boolean hasAdditionalParameters() {
+    return !additionalParameters.isEmpty();
+  }
+
   public boolean hasAdditionalParameter(String name) {
     String paramName = new PropertyTokenizer(name).getName();
     return additionalParameters.containsKey(paramName);
   }
 
   public void setAdditionalParameter(String name, Object value) {
-    metaParameters.setValue(name, value);
+    getMetaParameters().setValue(name, value);
   }
 
   public Object getAdditionalParameter(String name) {
-    return metaParameters.getValue(name);
+    return getMetaParameters().getValue(name);
+  }
+
+  private MetaObject getMetaParameters() {
+    if (metaParameters == null) {
+      metaParameters = configuration.newMetaObject(additionalParameters);
+    }
+    return metaParameters;
+  }
+
+  private static class LayeredParameters extends HashMap<String, Object> {
+
+    private static final long serialVersionUID = 1L;
+    private final Map<String, Object> parent;
+
+    private LayeredParameters(Map<String, Object> parameters, Map<String, Object> parent) {
+      super(parameters);
+      this.parent = parent;
+    }
+
+    @Override
+    public Object get(Object key) {
+      return super.containsKey(key) ? super.get(key) : parent.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return super.containsKey(key) || parent.containsKey(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return super.isEmpty() && parent.isEmpty();
+    }
   }
 }
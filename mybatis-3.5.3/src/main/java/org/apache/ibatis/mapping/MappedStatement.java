@@ -18,14 +18,18 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.resultset.ResultSetLayout;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.ParameterBindingPlan;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -33,6 +37,9 @@ import org.apache.ibatis.session.Configuration;
  */
 public final class MappedStatement {
 
+  private static final int MAX_PARAMETER_BINDING_PLANS = 8;
+  private static final int MAX_DETECTED_RESULT_ORDERS = 64;
+
   private String resource;//mapper配置文件名，如：UserMapper.xml
   private Configuration configuration;//全局配置
   private String id;//节点的id属性加命名空间,如：com.lucky.mybatis.dao.UserMapper.selectByExample
@@ -56,6 +63,9 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private volatile ParameterBindingPlan[] parameterBindingPlans = new ParameterBindingPlan[0];
+  private final Map<Integer, ResultSetLayout> resultSetLayouts = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Boolean>> detectedResultOrders = new ConcurrentHashMap<>();
 
   MappedStatement() {
     // constructor disabled
@@ -293,6 +303,60 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns the plan binding the given parameter mappings for a parameter object of its class. A few plans are kept,
+   * so that the shapes of a dynamic statement or the parameter types of a mapper method do not replace each other.
+   */
+  public ParameterBindingPlan getParameterBindingPlan(List<ParameterMapping> parameterMappings, Object parameterObject) {
+    final ParameterBindingPlan[] plans = parameterBindingPlans;
+    for (ParameterBindingPlan plan : plans) {
+      if (plan.isFor(parameterMappings, parameterObject)) {
+        return plan;
+      }
+    }
+    for (ParameterBindingPlan plan : plans) {
+      if (plan.matches(parameterMappings, parameterObject)) {
+        return plan;
+      }
+    }
+    final ParameterBindingPlan plan = ParameterBindingPlan.compile(configuration, parameterMappings, parameterObject);
+    // the most recent plan first, the oldest one is dropped
+    final ParameterBindingPlan[] updated = new ParameterBindingPlan[Math.min(plans.length + 1, MAX_PARAMETER_BINDING_PLANS)];
+    updated[0] = plan;
+    System.arraycopy(plans, 0, updated, 1, updated.length - 1);
+    parameterBindingPlans = updated;
+    return plan;
+  }
+
+  /**
+   * Returns the layout of the last result set returned at the given index, used by the default result set handler.
+   */
+  public ResultSetLayout getResultSetLayout(int resultSetIndex) {
+    return resultSetLayouts.get(resultSetIndex);
+  }
+
+  public void setResultSetLayout(int resultSetIndex, ResultSetLayout resultSetLayout) {
+    resultSetLayouts.put(resultSetIndex, resultSetLayout);
+  }
+
+  /**
+   * Returns whether the rows returned by the given SQL were detected to be ordered by the ids of the result map,
+   * or {@code null} when it has not been detected yet. Used by the default result set handler.
+   */
+  public Boolean getDetectedResultOrder(ResultMap resultMap, String sql) {
+    Map<String, Boolean> orders = detectedResultOrders.get(resultMap.getId());
+    return orders == null ? null : orders.get(sql);
+  }
+
+  public void setDetectedResultOrder(ResultMap resultMap, String sql, boolean ordered) {
+    Map<String, Boolean> orders = detectedResultOrders.computeIfAbsent(resultMap.getId(), k -> new ConcurrentHashMap<>());
+    // the SQL of a dynamic statement can take many forms
+    if (orders.size() >= MAX_DETECTED_RESULT_ORDERS) {
+      orders.clear();
+    }
+    orders.put(sql, ordered);
+  }
+
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.parsing;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Clinton Begin
  */
@@ -35,53 +38,85 @@ public class GenericTokenParser {
       return "";
     }
     // search open token
-    int start = text.indexOf(openToken);
-    if (start == -1) {
+    if (text.indexOf(openToken) == -1) {
       return text;
     }
-    char[] src = text.toCharArray();
-    int offset = 0;
-    final StringBuilder builder = new StringBuilder();
+    return parse(text, null);
+  }
+
+  /**
+   * Splits a text into the texts between the tokens and the contents of the tokens, unescaped as by
+   * {@link #parse(String)}. The returned list alternates texts and token contents, starting and ending with a text
+   * that may be empty, so that replacing each token content by the result of the handler and joining the list
+   * gives the same result as {@link #parse(String)}. The handler of this parser is not called.
+   */
+  public List<String> split(String text) {
+    final List<String> segments = new ArrayList<>();
+    if (text == null || text.indexOf(openToken) == -1) {
+      segments.add(text == null ? "" : text);
+    } else {
+      segments.add(parse(text, segments));
+    }
+    return segments;
+  }
+
+  // appends the texts and the token contents to the segments, if any, instead of calling the handler
+  private String parse(String text, List<String> segments) {
+    final int length = text.length();
+    final StringBuilder builder = new StringBuilder(length);
     StringBuilder expression = null;
+    int offset = 0;
+    int start = text.indexOf(openToken);
     while (start > -1) {
-      if (start > 0 && src[start - 1] == '\\') {
+      if (start > 0 && text.charAt(start - 1) == '\\') {
         // this open token is escaped. remove the backslash and continue.
-        builder.append(src, offset, start - offset - 1).append(openToken);
+        builder.append(text, offset, start - 1).append(openToken);
         offset = start + openToken.length();
       } else {
         // found open token. let's search close token.
-        if (expression == null) {
-          expression = new StringBuilder();
-        } else {
+        if (expression != null) {
           expression.setLength(0);
         }
-        builder.append(src, offset, start - offset);
+        builder.append(text, offset, start);
         offset = start + openToken.length();
+        String content = null;
         int end = text.indexOf(closeToken, offset);
         while (end > -1) {
-          if (end > offset && src[end - 1] == '\\') {
+          if (end > offset && text.charAt(end - 1) == '\\') {
             // this close token is escaped. remove the backslash and continue.
-            expression.append(src, offset, end - offset - 1).append(closeToken);
+            if (expression == null) {
+              expression = new StringBuilder();
+            }
+            expression.append(text, offset, end - 1).append(closeToken);
             offset = end + closeToken.length();
             end = text.indexOf(closeToken, offset);
+          } else if (expression == null || expression.length() == 0) {
+            content = text.substring(offset, end);
+            break;
           } else {
-            expression.append(src, offset, end - offset);
+            content = expression.append(text, offset, end).toString();
             break;
           }
         }
         if (end == -1) {
           // close token was not found.
-          builder.append(src, start, src.length - start);
-          offset = src.length;
+          builder.append(text, start, length);
+          offset = length;
         } else {
-          builder.append(handler.handleToken(expression.toString()));
+          if (segments == null) {
+            builder.append(handler.handleToken(content));
+          } else {
+            segments.add(builder.toString());
+            segments.add(content);
+            builder.setLength(0);
+          }
           offset = end + closeToken.length();
         }
       }
       start = text.indexOf(openToken, offset);
     }
-    if (offset < src.length) {
-      builder.append(src, offset, src.length - offset);
+    if (offset < length) {
+      builder.append(text, offset, length);
     }
     return builder.toString();
   }
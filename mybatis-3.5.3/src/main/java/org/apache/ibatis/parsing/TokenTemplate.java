@@ -0,0 +1,60 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import java.util.List;
+
+/**
+ * A text split once into the texts between its tokens and the contents of the tokens, so that it can be rendered
+ * many times with {@link #render(TokenHandler)}, with the same result as {@link GenericTokenParser#parse(String)}
+ * but without scanning the text again.
+ */
+public final class TokenTemplate {
+
+  // the texts at even indexes and the token contents at odd indexes
+  private final String[] segments;
+  private final int textLength;
+
+  private TokenTemplate(List<String> segments) {
+    this.segments = segments.toArray(new String[0]);
+    int length = 0;
+    for (int i = 0; i < this.segments.length; i += 2) {
+      length += this.segments[i].length();
+    }
+    this.textLength = length;
+  }
+
+  public static TokenTemplate compile(String openToken, String closeToken, String text) {
+    return new TokenTemplate(new GenericTokenParser(openToken, closeToken, null).split(text));
+  }
+
+  public boolean hasTokens() {
+    return segments.length > 1;
+  }
+
+  public String render(TokenHandler handler) {
+    if (segments.length == 1) {
+      return segments[0];
+    }
+    final StringBuilder builder = new StringBuilder(textLength + 16 * (segments.length / 2));
+    builder.append(segments[0]);
+    for (int i = 1; i < segments.length; i += 2) {
+      builder.append(handler.handleToken(segments[i])).append(segments[i + 1]);
+    }
+    return builder.toString();
+  }
+
+}
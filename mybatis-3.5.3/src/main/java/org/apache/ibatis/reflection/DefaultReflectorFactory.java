@@ -18,9 +18,13 @@ package org.apache.ibatis.reflection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.ibatis.reflection.property.PropertyPath;
+
 public class DefaultReflectorFactory implements ReflectorFactory {
+  private static final int PROPERTY_PATH_CACHE_LIMIT = 4096;
   private boolean classCacheEnabled = true;
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PropertyPath> propertyPathMap = new ConcurrentHashMap<>();
 
   public DefaultReflectorFactory() {
   }
@@ -45,4 +49,20 @@ public class DefaultReflectorFactory implements ReflectorFactory {
     }
   }
 
+  @Override
+  public PropertyPath findPropertyPath(String expression) {
+    if (!classCacheEnabled) {
+      return PropertyPath.compile(expression);
+    }
+    PropertyPath path = propertyPathMap.get(expression);
+    if (path == null) {
+      // names built at runtime, such as the items of a foreach, must not keep the other paths out of the cache
+      if (propertyPathMap.size() >= PROPERTY_PATH_CACHE_LIMIT) {
+        propertyPathMap.clear();
+      }
+      path = propertyPathMap.computeIfAbsent(expression, PropertyPath::compile);
+    }
+    return path;
+  }
+
 }
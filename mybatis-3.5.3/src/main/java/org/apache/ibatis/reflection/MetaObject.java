@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.reflection.wrapper.CollectionWrapper;
@@ -110,6 +111,9 @@ public class MetaObject {
   }
 
   public Object getValue(String name) {
+    if (isNested(name) && PropertyPath.isWalkable(objectWrapper)) {
+      return reflectorFactory.findPropertyPath(name).getValue(this);
+    }
     PropertyTokenizer prop = new PropertyTokenizer(name);
     if (prop.hasNext()) {
       MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
@@ -124,6 +128,9 @@ public class MetaObject {
   }
 
   public void setValue(String name, Object value) {
+    if (isNested(name) && PropertyPath.isWalkable(objectWrapper) && reflectorFactory.findPropertyPath(name).setValue(this, value)) {
+      return;
+    }
     PropertyTokenizer prop = new PropertyTokenizer(name);
     if (prop.hasNext()) {
       MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
@@ -141,6 +148,10 @@ public class MetaObject {
     }
   }
 
+  private static boolean isNested(String name) {
+    return name.indexOf('.') >= 0;
+  }
+
   public MetaObject metaObjectForProperty(String name) {
     Object value = getValue(name);
     return MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
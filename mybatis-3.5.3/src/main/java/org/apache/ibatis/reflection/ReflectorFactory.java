@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.reflection;
 
+import org.apache.ibatis.reflection.property.PropertyPath;
+
 public interface ReflectorFactory {
 
   boolean isClassCacheEnabled();
@@ -22,4 +24,11 @@ public interface ReflectorFactory {
   void setClassCacheEnabled(boolean classCacheEnabled);
 
   Reflector findForClass(Class<?> type);
+
+  /**
+   * Returns the path of a nested property expression, which implementations may cache along with their reflectors.
+   */
+  default PropertyPath findPropertyPath(String expression) {
+    return PropertyPath.compile(expression);
+  }
 }
\ No newline at end of file
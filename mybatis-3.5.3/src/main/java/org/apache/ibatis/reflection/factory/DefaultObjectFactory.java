@@ -15,8 +15,17 @@
  */
 package org.apache.ibatis.reflection.factory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,6 +37,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.ibatis.reflection.ReflectionException;
@@ -40,6 +51,17 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
 
   private static final long serialVersionUID = -8855120656740914948L;
 
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  // constructors are resolved once per type and signature
+  private transient Map<Class<?>, Instantiator> defaultInstantiators = new ConcurrentHashMap<>();
+  private transient Map<Class<?>, Map<List<Class<?>>, Instantiator>> instantiators = new ConcurrentHashMap<>();
+
+  @FunctionalInterface
+  private interface Instantiator {
+    Object newInstance(Object[] args) throws Exception;
+  }
+
   @Override
   public <T> T create(Class<T> type) {
     return create(type, null, null);
@@ -53,33 +75,12 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     return (T) instantiateClass(classToCreate, constructorArgTypes, constructorArgs);
   }
 
-  private  <T> T instantiateClass(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+  private <T> T instantiateClass(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
     try {
-      Constructor<T> constructor;
       if (constructorArgTypes == null || constructorArgs == null) {
-        constructor = type.getDeclaredConstructor();
-        try {
-          return constructor.newInstance();
-        } catch (IllegalAccessException e) {
-          if (Reflector.canControlMemberAccessible()) {
-            constructor.setAccessible(true);
-            return constructor.newInstance();
-          } else {
-            throw e;
-          }
-        }
-      }
-      constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class[constructorArgTypes.size()]));
-      try {
-        return constructor.newInstance(constructorArgs.toArray(new Object[constructorArgs.size()]));
-      } catch (IllegalAccessException e) {
-        if (Reflector.canControlMemberAccessible()) {
-          constructor.setAccessible(true);
-          return constructor.newInstance(constructorArgs.toArray(new Object[constructorArgs.size()]));
-        } else {
-          throw e;
-        }
+        return type.cast(getInstantiator(type, null).newInstance(NO_ARGUMENTS));
       }
+      return type.cast(getInstantiator(type, constructorArgTypes).newInstance(constructorArgs.toArray()));
     } catch (Exception e) {
       String argTypes = Optional.ofNullable(constructorArgTypes).orElseGet(Collections::emptyList)
           .stream().map(Class::getSimpleName).collect(Collectors.joining(","));
@@ -89,6 +90,79 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     }
   }
 
+  private Instantiator getInstantiator(Class<?> type, List<Class<?>> constructorArgTypes) throws Exception {
+    if (constructorArgTypes == null) {
+      Instantiator instantiator = defaultInstantiators.get(type);
+      if (instantiator == null) {
+        instantiator = createInstantiator(type, new Class<?>[0]);
+        defaultInstantiators.put(type, instantiator);
+      }
+      return instantiator;
+    }
+    Map<List<Class<?>>, Instantiator> typeInstantiators = instantiators.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+    Instantiator instantiator = typeInstantiators.get(constructorArgTypes);
+    if (instantiator == null) {
+      instantiator = createInstantiator(type, constructorArgTypes.toArray(new Class<?>[0]));
+      typeInstantiators.put(new ArrayList<>(constructorArgTypes), instantiator);
+    }
+    return instantiator;
+  }
+
+  private static Instantiator createInstantiator(Class<?> type, Class<?>[] argTypes) throws Exception {
+    final Constructor<?> constructor = type.getDeclaredConstructor(argTypes);
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.lookup().unreflectConstructor(constructor);
+    } catch (IllegalAccessException e) {
+      if (Reflector.canControlMemberAccessible()) {
+        constructor.setAccessible(true);
+        handle = MethodHandles.lookup().unreflectConstructor(constructor);
+      } else {
+        throw e;
+      }
+    }
+    if (argTypes.length == 0 && isPublic(type, constructor) && isVisible(type)) {
+      try {
+        final CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "get", MethodType.methodType(Supplier.class),
+            MethodType.methodType(Object.class), handle, MethodType.methodType(type));
+        final Supplier<?> supplier = (Supplier<?>) site.getTarget().invokeWithArguments();
+        return args -> supplier.get();
+      } catch (Throwable e) {
+        // fall back to the method handle
+      }
+    }
+    final MethodHandle spreader = handle.asSpreader(Object[].class, argTypes.length)
+        .asType(MethodType.methodType(Object.class, Object[].class));
+    return args -> {
+      try {
+        return (Object) spreader.invokeExact(args);
+      } catch (Exception | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    };
+  }
+
+  private static boolean isPublic(Class<?> type, Constructor<?> constructor) {
+    return Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(constructor.getModifiers());
+  }
+
+  // the class generated by the LambdaMetafactory resolves the type with the class loader of this class
+  private static boolean isVisible(Class<?> type) {
+    try {
+      return Class.forName(type.getName(), false, DefaultObjectFactory.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    defaultInstantiators = new ConcurrentHashMap<>();
+    instantiators = new ConcurrentHashMap<>();
+  }
+
   protected Class<?> resolveInterface(Class<?> type) {
     Class<?> classToCreate;
     if (type == List.class || type == Collection.class || type == Iterable.class) {
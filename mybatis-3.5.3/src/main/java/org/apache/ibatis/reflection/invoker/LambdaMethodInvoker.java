@@ -0,0 +1,121 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Invokes a getter or a setter through a class generated by the {@link LambdaMetafactory}, which the JIT can
+ * inline like a direct call, instead of going through {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * Only public methods whose declaring class and signature are public and visible from the class loader of
+ * MyBatis can be bound this way. {@link #create(Method)} returns a reflective {@link MethodInvoker} otherwise.
+ */
+public class LambdaMethodInvoker extends MethodInvoker {
+
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+
+  private LambdaMethodInvoker(Method method, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+    super(method);
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  public static MethodInvoker create(Method method) {
+    if (isAccessible(method)) {
+      try {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(method);
+        if (parameterTypes.length == 0 && method.getReturnType() != void.class) {
+          CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+              MethodType.methodType(Object.class, Object.class), handle,
+              MethodType.methodType(box(method.getReturnType()), method.getDeclaringClass()));
+          return new LambdaMethodInvoker(method, cast(site.getTarget().invokeWithArguments()), null);
+        } else if (parameterTypes.length == 1) {
+          CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+              MethodType.methodType(void.class, Object.class, Object.class), handle,
+              MethodType.methodType(void.class, method.getDeclaringClass(), box(parameterTypes[0])));
+          return new LambdaMethodInvoker(method, null, cast(site.getTarget().invokeWithArguments()));
+        }
+      } catch (Throwable e) {
+        // fall back to reflection
+      }
+    }
+    return new MethodInvoker(method);
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) {
+    if (getter != null) {
+      return getter.apply(target);
+    }
+    setter.accept(target, args[0]);
+    return null;
+  }
+
+  private static boolean isAccessible(Method method) {
+    if (!Modifier.isPublic(method.getModifiers()) || !isAccessible(method.getDeclaringClass())
+        || !isAccessible(method.getReturnType())) {
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (!isAccessible(parameterType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // the generated class refers to the types through the class loader of this class
+  private static boolean isAccessible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    if (!Modifier.isPublic(type.getModifiers())) {
+      return false;
+    }
+    try {
+      return Class.forName(type.getName(), false, LambdaMethodInvoker.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static Class<?> box(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    }
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T cast(Object object) {
+    return (T) object;
+  }
+}
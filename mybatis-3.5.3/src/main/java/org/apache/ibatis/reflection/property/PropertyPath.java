@@ -0,0 +1,318 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.property;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.reflection.wrapper.MapWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+
+/**
+ * A property expression such as {@code order.customer.name} or {@code items[3].price} tokenized once.
+ * <p>
+ * {@link MetaObject} walks the segments of a path directly through beans and maps, reading each hop with the
+ * invoker last resolved for the class found there, instead of tokenizing the expression and creating a MetaObject
+ * for every hop. Collections and objects handled by an object wrapper are still delegated to a MetaObject.
+ */
+public final class PropertyPath {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final Segment[] segments;
+
+  private PropertyPath(String expression) {
+    PropertyTokenizer prop = new PropertyTokenizer(expression);
+    Segment[] segments = new Segment[] { new Segment(expression, prop) };
+    while (prop.hasNext()) {
+      String children = prop.getChildren();
+      prop = prop.next();
+      Segment[] expanded = new Segment[segments.length + 1];
+      System.arraycopy(segments, 0, expanded, 0, segments.length);
+      expanded[segments.length] = new Segment(children, prop);
+      segments = expanded;
+    }
+    this.segments = segments;
+  }
+
+  /**
+   * Tokenizes an expression. Callers walking the same expressions repeatedly should keep the path, as
+   * {@link org.apache.ibatis.reflection.DefaultReflectorFactory} does, so that the invokers resolved on each segment
+   * are reused.
+   */
+  public static PropertyPath compile(String expression) {
+    return new PropertyPath(expression);
+  }
+
+  public boolean isNested() {
+    return segments.length > 1;
+  }
+
+  /**
+   * Returns whether the paths can be walked from the object of the given wrapper.
+   */
+  public static boolean isWalkable(ObjectWrapper objectWrapper) {
+    return objectWrapper.getClass() == BeanWrapper.class || objectWrapper.getClass() == MapWrapper.class;
+  }
+
+  public Object getValue(MetaObject metaObject) {
+    Object current = metaObject.getOriginalObject();
+    for (int i = 0; i < segments.length; i++) {
+      if (current == null) {
+        return null;
+      }
+      if (i > 0 && !isWalkable(current, metaObject.getObjectWrapperFactory())) {
+        return forObject(current, metaObject).getValue(segments[i].expression);
+      }
+      current = segments[i].get(current, metaObject.getReflectorFactory());
+    }
+    return current;
+  }
+
+  /**
+   * Sets the value at the end of this path.
+   *
+   * @return {@literal false} if the first hop is null and has to be instantiated by the MetaObject
+   */
+  public boolean setValue(MetaObject metaObject, Object value) {
+    Object current = metaObject.getOriginalObject();
+    for (int i = 0; i < segments.length - 1; i++) {
+      if (i > 0 && !isWalkable(current, metaObject.getObjectWrapperFactory())) {
+        forObject(current, metaObject).setValue(segments[i].expression, value);
+        return true;
+      }
+      Object next = segments[i].get(current, metaObject.getReflectorFactory());
+      if (next == null) {
+        if (i == 0) {
+          return false;
+        }
+        forObject(current, metaObject).setValue(segments[i].expression, value);
+        return true;
+      }
+      current = next;
+    }
+    Segment last = segments[segments.length - 1];
+    if (isWalkable(current, metaObject.getObjectWrapperFactory())) {
+      last.set(current, value, metaObject.getReflectorFactory());
+    } else {
+      forObject(current, metaObject).setValue(last.expression, value);
+    }
+    return true;
+  }
+
+  private static boolean isWalkable(Object object, ObjectWrapperFactory objectWrapperFactory) {
+    return !(object instanceof ObjectWrapper) && !(object instanceof Collection) && !objectWrapperFactory.hasWrapperFor(object);
+  }
+
+  private static MetaObject forObject(Object object, MetaObject metaObject) {
+    return MetaObject.forObject(object, metaObject.getObjectFactory(), metaObject.getObjectWrapperFactory(), metaObject.getReflectorFactory());
+  }
+
+  public static Object getIndexedValue(Object collection, String property, String index) {
+    if (collection instanceof Map) {
+      return ((Map<?, ?>) collection).get(index);
+    }
+    return getIndexedValue(collection, property, Integer.parseInt(index));
+  }
+
+  private static Object getIndexedValue(Object collection, String property, int i) {
+    if (collection instanceof List) {
+      return ((List<?>) collection).get(i);
+    } else if (collection instanceof Object[]) {
+      return ((Object[]) collection)[i];
+    } else if (collection instanceof char[]) {
+      return ((char[]) collection)[i];
+    } else if (collection instanceof boolean[]) {
+      return ((boolean[]) collection)[i];
+    } else if (collection instanceof byte[]) {
+      return ((byte[]) collection)[i];
+    } else if (collection instanceof double[]) {
+      return ((double[]) collection)[i];
+    } else if (collection instanceof float[]) {
+      return ((float[]) collection)[i];
+    } else if (collection instanceof int[]) {
+      return ((int[]) collection)[i];
+    } else if (collection instanceof long[]) {
+      return ((long[]) collection)[i];
+    } else if (collection instanceof short[]) {
+      return ((short[]) collection)[i];
+    } else {
+      throw new ReflectionException("The '" + property + "' property of " + collection + " is not a List or Array.");
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public static void setIndexedValue(Object collection, String property, String index, Object value) {
+    if (collection instanceof Map) {
+      ((Map<String, Object>) collection).put(index, value);
+    } else {
+      setIndexedValue(collection, property, Integer.parseInt(index), value);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void setIndexedValue(Object collection, String property, int i, Object value) {
+    if (collection instanceof List) {
+      ((List<Object>) collection).set(i, value);
+    } else if (collection instanceof Object[]) {
+      ((Object[]) collection)[i] = value;
+    } else if (collection instanceof char[]) {
+      ((char[]) collection)[i] = (Character) value;
+    } else if (collection instanceof boolean[]) {
+      ((boolean[]) collection)[i] = (Boolean) value;
+    } else if (collection instanceof byte[]) {
+      ((byte[]) collection)[i] = (Byte) value;
+    } else if (collection instanceof double[]) {
+      ((double[]) collection)[i] = (Double) value;
+    } else if (collection instanceof float[]) {
+      ((float[]) collection)[i] = (Float) value;
+    } else if (collection instanceof int[]) {
+      ((int[]) collection)[i] = (Integer) value;
+    } else if (collection instanceof long[]) {
+      ((long[]) collection)[i] = (Long) value;
+    } else if (collection instanceof short[]) {
+      ((short[]) collection)[i] = (Short) value;
+    } else {
+      throw new ReflectionException("The '" + property + "' property of " + collection + " is not a List or Array.");
+    }
+  }
+
+  private static final class Segment {
+
+    private final String expression;
+    private final String name;
+    private final String index;
+    private final Integer position;
+
+    // the invokers resolved for the last class seen on this segment
+    private volatile ResolvedInvoker getter;
+    private volatile ResolvedInvoker setter;
+
+    private Segment(String expression, PropertyTokenizer prop) {
+      this.expression = expression;
+      this.name = prop.getName();
+      this.index = prop.getIndex();
+      this.position = parsePosition(index);
+    }
+
+    private static Integer parsePosition(String index) {
+      if (index == null) {
+        return null;
+      }
+      try {
+        return Integer.valueOf(index);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private Object get(Object object, ReflectorFactory reflectorFactory) {
+      if (index == null) {
+        return getProperty(object, reflectorFactory);
+      }
+      Object collection = name.isEmpty() ? object : getProperty(object, reflectorFactory);
+      if (position == null || collection instanceof Map) {
+        return getIndexedValue(collection, name, index);
+      }
+      return getIndexedValue(collection, name, position);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void set(Object object, Object value, ReflectorFactory reflectorFactory) {
+      if (index == null) {
+        if (object instanceof Map) {
+          ((Map<String, Object>) object).put(name, value);
+        } else {
+          setBeanProperty(object, value, reflectorFactory);
+        }
+        return;
+      }
+      Object collection = name.isEmpty() ? object : getProperty(object, reflectorFactory);
+      if (position == null || collection instanceof Map) {
+        setIndexedValue(collection, name, index, value);
+      } else {
+        setIndexedValue(collection, name, position, value);
+      }
+    }
+
+    private Object getProperty(Object object, ReflectorFactory reflectorFactory) {
+      if (object instanceof Map) {
+        return ((Map<?, ?>) object).get(name);
+      }
+      try {
+        ResolvedInvoker resolved = getter;
+        if (resolved == null || !resolved.matches(object.getClass(), reflectorFactory)) {
+          Invoker invoker = reflectorFactory.findForClass(object.getClass()).getGetInvoker(name);
+          resolved = new ResolvedInvoker(object.getClass(), reflectorFactory, invoker);
+          getter = resolved;
+        }
+        try {
+          return resolved.invoker.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+
+    private void setBeanProperty(Object object, Object value, ReflectorFactory reflectorFactory) {
+      try {
+        ResolvedInvoker resolved = setter;
+        if (resolved == null || !resolved.matches(object.getClass(), reflectorFactory)) {
+          Invoker invoker = reflectorFactory.findForClass(object.getClass()).getSetInvoker(name);
+          resolved = new ResolvedInvoker(object.getClass(), reflectorFactory, invoker);
+          setter = resolved;
+        }
+        try {
+          resolved.invoker.invoke(object, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + name + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+  private static final class ResolvedInvoker {
+
+    private final Class<?> type;
+    private final ReflectorFactory reflectorFactory;
+    private final Invoker invoker;
+
+    private ResolvedInvoker(Class<?> type, ReflectorFactory reflectorFactory, Invoker invoker) {
+      this.type = type;
+      this.reflectorFactory = reflectorFactory;
+      this.invoker = invoker;
+    }
+
+    private boolean matches(Class<?> type, ReflectorFactory reflectorFactory) {
+      return this.type == type && this.reflectorFactory == reflectorFactory;
+    }
+  }
+
+}
@@ -15,11 +15,8 @@
  */
 package org.apache.ibatis.reflection.wrapper;
 
-import java.util.List;
-import java.util.Map;
-
 import org.apache.ibatis.reflection.MetaObject;
-import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
 /**
@@ -43,65 +40,11 @@ public abstract class BaseWrapper implements ObjectWrapper {
   }
 
   protected Object getCollectionValue(PropertyTokenizer prop, Object collection) {
-    if (collection instanceof Map) {
-      return ((Map) collection).get(prop.getIndex());
-    } else {
-      int i = Integer.parseInt(prop.getIndex());
-      if (collection instanceof List) {
-        return ((List) collection).get(i);
-      } else if (collection instanceof Object[]) {
-        return ((Object[]) collection)[i];
-      } else if (collection instanceof char[]) {
-        return ((char[]) collection)[i];
-      } else if (collection instanceof boolean[]) {
-        return ((boolean[]) collection)[i];
-      } else if (collection instanceof byte[]) {
-        return ((byte[]) collection)[i];
-      } else if (collection instanceof double[]) {
-        return ((double[]) collection)[i];
-      } else if (collection instanceof float[]) {
-        return ((float[]) collection)[i];
-      } else if (collection instanceof int[]) {
-        return ((int[]) collection)[i];
-      } else if (collection instanceof long[]) {
-        return ((long[]) collection)[i];
-      } else if (collection instanceof short[]) {
-        return ((short[]) collection)[i];
-      } else {
-        throw new ReflectionException("The '" + prop.getName() + "' property of " + collection + " is not a List or Array.");
-      }
-    }
+    return PropertyPath.getIndexedValue(collection, prop.getName(), prop.getIndex());
   }
 
   protected void setCollectionValue(PropertyTokenizer prop, Object collection, Object value) {
-    if (collection instanceof Map) {
-      ((Map) collection).put(prop.getIndex(), value);
-    } else {
-      int i = Integer.parseInt(prop.getIndex());
-      if (collection instanceof List) {
-        ((List) collection).set(i, value);
-      } else if (collection instanceof Object[]) {
-        ((Object[]) collection)[i] = value;
-      } else if (collection instanceof char[]) {
-        ((char[]) collection)[i] = (Character) value;
-      } else if (collection instanceof boolean[]) {
-        ((boolean[]) collection)[i] = (Boolean) value;
-      } else if (collection instanceof byte[]) {
-        ((byte[]) collection)[i] = (Byte) value;
-      } else if (collection instanceof double[]) {
-        ((double[]) collection)[i] = (Double) value;
-      } else if (collection instanceof float[]) {
-        ((float[]) collection)[i] = (Float) value;
-      } else if (collection instanceof int[]) {
-        ((int[]) collection)[i] = (Integer) value;
-      } else if (collection instanceof long[]) {
-        ((long[]) collection)[i] = (Long) value;
-      } else if (collection instanceof short[]) {
-        ((short[]) collection)[i] = (Short) value;
-      } else {
-        throw new ReflectionException("The '" + prop.getName() + "' property of " + collection + " is not a List or Array.");
-      }
-    }
+    PropertyPath.setIndexedValue(collection, prop.getName(), prop.getIndex(), value);
   }
 
 }
\ No newline at end of file
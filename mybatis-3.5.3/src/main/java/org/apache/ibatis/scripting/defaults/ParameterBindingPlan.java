@@ -0,0 +1,140 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Resolves once how the value of each {@link ParameterMapping} is read from a parameter object of a given type,
+ * so that binding the parameters of a statement does not create a {@link org.apache.ibatis.reflection.MetaObject}
+ * nor tokenize the property names on each execution.
+ * <p>
+ * A few plans are cached by their {@link org.apache.ibatis.mapping.MappedStatement}, each one reused for its parameter
+ * type and parameter mappings (the same list, or one with the same properties for dynamic SQL).
+ * Nested properties and objects handled by a custom object wrapper still go through a MetaObject.
+ */
+public class ParameterBindingPlan {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final List<ParameterMapping> parameterMappings;
+  private final Class<?> parameterType;
+  private final ValueAccessor[] accessors;
+
+  interface ValueAccessor {
+    Object getValue(Configuration configuration, Object parameterObject);
+  }
+
+  private ParameterBindingPlan(List<ParameterMapping> parameterMappings, Class<?> parameterType, ValueAccessor[] accessors) {
+    this.parameterMappings = parameterMappings;
+    this.parameterType = parameterType;
+    this.accessors = accessors;
+  }
+
+  public static ParameterBindingPlan compile(Configuration configuration, List<ParameterMapping> parameterMappings, Object parameterObject) {
+    final Class<?> parameterType = parameterObject == null ? null : parameterObject.getClass();
+    final ValueAccessor[] accessors = new ValueAccessor[parameterMappings.size()];
+    for (int i = 0; i < accessors.length; i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() != ParameterMode.OUT) {
+        accessors[i] = createAccessor(configuration, parameterMapping.getProperty(), parameterObject);
+      }
+    }
+    return new ParameterBindingPlan(parameterMappings, parameterType, accessors);
+  }
+
+  private static ValueAccessor createAccessor(Configuration configuration, String property, Object parameterObject) {
+    if (parameterObject == null) {
+      return (c, p) -> null;
+    }
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+      return (c, p) -> p;
+    }
+    boolean simpleProperty = property.indexOf('.') < 0 && property.indexOf('[') < 0;
+    if (simpleProperty && !configuration.getObjectWrapperFactory().hasWrapperFor(parameterObject)) {
+      if (parameterObject instanceof Map) {
+        return (c, p) -> ((Map<?, ?>) p).get(property);
+      }
+      if (!(parameterObject instanceof Collection)) {
+        Reflector reflector = configuration.getReflectorFactory().findForClass(parameterObject.getClass());
+        if (reflector.hasGetter(property)) {
+          Invoker invoker = reflector.getGetInvoker(property);
+          return (c, p) -> getBeanProperty(invoker, property, p);
+        }
+      }
+    }
+    return (c, p) -> c.newMetaObject(p).getValue(property);
+  }
+
+  private static Object getBeanProperty(Invoker invoker, String property, Object parameterObject) {
+    try {
+      try {
+        return invoker.invoke(parameterObject, NO_ARGUMENTS);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not get property '" + property + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+    }
+  }
+
+  /**
+   * Returns whether this plan was compiled for the given parameter mappings and the type of the parameter object.
+   */
+  public boolean isFor(List<ParameterMapping> parameterMappings, Object parameterObject) {
+    return this.parameterMappings == parameterMappings && parameterType == (parameterObject == null ? null : parameterObject.getClass());
+  }
+
+  /**
+   * Returns whether this plan can bind the given parameter mappings for a parameter object of the given type.
+   */
+  public boolean matches(List<ParameterMapping> parameterMappings, Object parameterObject) {
+    if (parameterType != (parameterObject == null ? null : parameterObject.getClass())) {
+      return false;
+    }
+    if (this.parameterMappings == parameterMappings) {
+      return true;
+    }
+    if (this.parameterMappings.size() != parameterMappings.size()) {
+      return false;
+    }
+    for (int i = 0; i < parameterMappings.size(); i++) {
+      ParameterMapping expected = this.parameterMappings.get(i);
+      ParameterMapping actual = parameterMappings.get(i);
+      if (expected.getMode() != actual.getMode() || !expected.getProperty().equals(actual.getProperty())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public Object getValue(int index, Configuration configuration, Object parameterObject) {
+    return accessors[index].getValue(configuration, parameterObject);
+  }
+
+}
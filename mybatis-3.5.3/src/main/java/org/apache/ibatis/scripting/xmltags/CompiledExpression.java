@@ -0,0 +1,500 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+/**
+ * An OGNL expression of the subset commonly used by the dynamic SQL tags, compiled to a tree of evaluators that
+ * read properties through the {@link Reflector} instead of being interpreted by OGNL.
+ * <p>
+ * The subset is made of property paths, the literals <code>null</code>, <code>true</code>, <code>false</code>,
+ * integers, decimals, strings and characters, the methods <code>size()</code>, <code>isEmpty()</code> and
+ * <code>length()</code>, the comparison operators and the boolean operators, with the semantics of OGNL. When a
+ * value is not one of the types handled here, for instance a comparison between a string and a character, the
+ * evaluation throws {@link Fallback} and the expression must be evaluated by OGNL.
+ */
+final class CompiledExpression {
+
+  /**
+   * Thrown when an expression cannot be evaluated without OGNL. It has no stack trace.
+   */
+  static final class Fallback extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private Fallback() {
+      super(null, null, false, false);
+    }
+  }
+
+  static final Fallback FALLBACK = new Fallback();
+
+  private static final ReflectorFactory REFLECTOR_FACTORY = new DefaultReflectorFactory();
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  @FunctionalInterface
+  private interface Node {
+    Object evaluate(Object root);
+  }
+
+  private final Node node;
+
+  private CompiledExpression(Node node) {
+    this.node = node;
+  }
+
+  /**
+   * Returns the compiled expression, or <code>null</code> when the expression is not part of the subset.
+   */
+  static CompiledExpression compile(String expression) {
+    List<String> tokens = tokenize(expression);
+    if (tokens == null || tokens.isEmpty()) {
+      return null;
+    }
+    Parser parser = new Parser(tokens);
+    Node node = parser.parseOr();
+    return node == null || parser.position != tokens.size() ? null : new CompiledExpression(node);
+  }
+
+  /**
+   * Evaluates the expression as OGNL would.
+   *
+   * @throws Fallback if the expression must be evaluated by OGNL
+   */
+  Object evaluate(Object root) {
+    return node.evaluate(root);
+  }
+
+  //
+  // PARSING
+  //
+
+  // literals are kept as tokens starting with a quote, a double quote or a digit
+  private static List<String> tokenize(String expression) {
+    List<String> tokens = new ArrayList<>();
+    int i = 0;
+    int length = expression.length();
+    while (i < length) {
+      char c = expression.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (Character.isJavaIdentifierStart(c)) {
+        int start = i;
+        while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+          i++;
+        }
+        tokens.add(expression.substring(start, i));
+      } else if (c >= '0' && c <= '9') {
+        int start = i;
+        while (i < length && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+          i++;
+        }
+        if (i < length && (expression.charAt(i) == 'L' || expression.charAt(i) == 'l')) {
+          i++;
+        }
+        if (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+          // other suffixes and exponents
+          return null;
+        }
+        tokens.add(expression.substring(start, i));
+      } else if (c == '\'' || c == '"') {
+        int end = expression.indexOf(c, i + 1);
+        if (end < 0 || expression.lastIndexOf('\\', end) > i) {
+          return null;
+        }
+        tokens.add(expression.substring(i, end + 1));
+        i = end + 1;
+      } else {
+        String operator = i + 1 < length ? expression.substring(i, i + 2) : null;
+        if ("==".equals(operator) || "!=".equals(operator) || "<=".equals(operator) || ">=".equals(operator)
+            || "&&".equals(operator) || "||".equals(operator)) {
+          tokens.add(operator);
+          i += 2;
+        } else if ("().<>!".indexOf(c) >= 0) {
+          tokens.add(String.valueOf(c));
+          i++;
+        } else {
+          return null;
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private static final class Parser {
+    private final List<String> tokens;
+    private int position;
+
+    private Parser(List<String> tokens) {
+      this.tokens = tokens;
+    }
+
+    private String peek() {
+      return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private boolean accept(String token, String alias) {
+      String next = peek();
+      if (next != null && (next.equals(token) || next.equals(alias))) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    Node parseOr() {
+      Node left = parseAnd();
+      while (left != null && accept("||", "or")) {
+        Node l = left;
+        Node r = parseAnd();
+        if (r == null) {
+          return null;
+        }
+        left = root -> {
+          Object value = l.evaluate(root);
+          return booleanValue(value) ? value : r.evaluate(root);
+        };
+      }
+      return left;
+    }
+
+    private Node parseAnd() {
+      Node left = parseEquality();
+      while (left != null && accept("&&", "and")) {
+        Node l = left;
+        Node r = parseEquality();
+        if (r == null) {
+          return null;
+        }
+        left = root -> {
+          Object value = l.evaluate(root);
+          return booleanValue(value) ? r.evaluate(root) : value;
+        };
+      }
+      return left;
+    }
+
+    private Node parseEquality() {
+      Node left = parseRelational();
+      while (left != null) {
+        Node l = left;
+        if (accept("==", "eq")) {
+          Node r = parseRelational();
+          left = r == null ? null : root -> equal(l.evaluate(root), r.evaluate(root));
+        } else if (accept("!=", "neq")) {
+          Node r = parseRelational();
+          left = r == null ? null : root -> !equal(l.evaluate(root), r.evaluate(root));
+        } else {
+          break;
+        }
+      }
+      return left;
+    }
+
+    private Node parseRelational() {
+      Node left = parseUnary();
+      while (left != null) {
+        Node l = left;
+        if (accept("<", "lt")) {
+          Node r = parseUnary();
+          left = r == null ? null : root -> compare(l.evaluate(root), r.evaluate(root)) < 0;
+        } else if (accept(">", "gt")) {
+          Node r = parseUnary();
+          left = r == null ? null : root -> compare(l.evaluate(root), r.evaluate(root)) > 0;
+        } else if (accept("<=", "lte")) {
+          Node r = parseUnary();
+          left = r == null ? null : root -> compare(l.evaluate(root), r.evaluate(root)) <= 0;
+        } else if (accept(">=", "gte")) {
+          Node r = parseUnary();
+          left = r == null ? null : root -> compare(l.evaluate(root), r.evaluate(root)) >= 0;
+        } else {
+          break;
+        }
+      }
+      return left;
+    }
+
+    private Node parseUnary() {
+      if (accept("!", "not")) {
+        Node operand = parseUnary();
+        return operand == null ? null : root -> !booleanValue(operand.evaluate(root));
+      }
+      return parseNavigation();
+    }
+
+    private Node parseNavigation() {
+      Node node = parsePrimary();
+      while (node != null && accept(".", null)) {
+        String name = peek();
+        if (!isIdentifier(name)) {
+          return null;
+        }
+        position++;
+        if (accept("(", null)) {
+          node = accept(")", null) ? method(node, name) : null;
+        } else {
+          Node target = node;
+          node = root -> getProperty(target.evaluate(root), name);
+        }
+      }
+      return node;
+    }
+
+    private Node parsePrimary() {
+      String token = peek();
+      if (token == null) {
+        return null;
+      }
+      position++;
+      if ("(".equals(token)) {
+        Node node = parseOr();
+        return node != null && accept(")", null) ? node : null;
+      }
+      char first = token.charAt(0);
+      if (first == '"') {
+        String value = token.substring(1, token.length() - 1);
+        return root -> value;
+      } else if (first == '\'') {
+        // a single character between quotes is a Character in OGNL
+        Object value = token.length() == 3 ? (Object) token.charAt(1) : token.substring(1, token.length() - 1);
+        return root -> value;
+      } else if (Character.isDigit(first)) {
+        Object value = parseNumber(token);
+        return value == null ? null : root -> value;
+      } else if ("null".equals(token)) {
+        return root -> null;
+      } else if ("true".equals(token) || "false".equals(token)) {
+        Boolean value = Boolean.valueOf(token);
+        return root -> value;
+      } else if (isIdentifier(token) && !"(".equals(peek())) {
+        return root -> getRootProperty(root, token);
+      }
+      return null;
+    }
+
+    private static Node method(Node target, String name) {
+      switch (name) {
+        case "size":
+          return root -> size(target.evaluate(root));
+        case "isEmpty":
+          return root -> isEmpty(target.evaluate(root));
+        case "length":
+          return root -> length(target.evaluate(root));
+        default:
+          return null;
+      }
+    }
+
+    private static Object parseNumber(String token) {
+      try {
+        if (token.indexOf('.') >= 0) {
+          return token.endsWith("L") || token.endsWith("l") || token.endsWith(".") ? null : Double.valueOf(token);
+        }
+        final boolean isLong = token.endsWith("L") || token.endsWith("l");
+        final String digits = isLong ? token.substring(0, token.length() - 1) : token;
+        if (digits.length() > 1 && digits.charAt(0) == '0') {
+          // an octal literal for OGNL
+          return null;
+        }
+        return isLong ? (Object) Long.valueOf(digits) : (Object) Integer.valueOf(digits);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private static boolean isIdentifier(String token) {
+      return token != null && Character.isJavaIdentifierStart(token.charAt(0)) && !isKeyword(token);
+    }
+
+    private static boolean isKeyword(String token) {
+      switch (token) {
+        case "and":
+        case "or":
+        case "not":
+        case "eq":
+        case "neq":
+        case "lt":
+        case "lte":
+        case "gt":
+        case "gte":
+        case "in":
+        case "instanceof":
+        case "shl":
+        case "shr":
+        case "ushr":
+        case "band":
+        case "bor":
+        case "xor":
+        case "new":
+        case "null":
+        case "true":
+        case "false":
+          return true;
+        default:
+          return false;
+      }
+    }
+  }
+
+  //
+  // EVALUATION
+  //
+
+  private static Object getRootProperty(Object root, String name) {
+    if (root instanceof DynamicContext.ContextMap) {
+      // same as DynamicContext.ContextAccessor
+      Map<?, ?> map = (Map<?, ?>) root;
+      Object result = map.get(name);
+      if (result != null || map.containsKey(name)) {
+        return result;
+      }
+      Object parameterObject = map.get(DynamicContext.PARAMETER_OBJECT_KEY);
+      return parameterObject instanceof Map ? ((Map<?, ?>) parameterObject).get(name) : null;
+    }
+    return getProperty(root, name);
+  }
+
+  private static Object getProperty(Object target, String name) {
+    if (target instanceof Map) {
+      switch (name) {
+        case "size":
+        case "isEmpty":
+        case "keys":
+        case "keySet":
+        case "values":
+          // read from the map itself by OGNL
+          throw FALLBACK;
+        default:
+          return ((Map<?, ?>) target).get(name);
+      }
+    }
+    if (target == null || target instanceof Collection || target instanceof Iterator || target instanceof Enumeration
+        || target.getClass().isArray()) {
+      throw FALLBACK;
+    }
+    try {
+      Reflector reflector = REFLECTOR_FACTORY.findForClass(target.getClass());
+      if (!reflector.hasGetter(name)) {
+        throw FALLBACK;
+      }
+      return reflector.getGetInvoker(name).invoke(target, NO_ARGUMENTS);
+    } catch (Fallback e) {
+      throw e;
+    } catch (Throwable t) {
+      // OGNL reports the error
+      throw FALLBACK;
+    }
+  }
+
+  private static Object size(Object target) {
+    if (target instanceof Collection) {
+      return ((Collection<?>) target).size();
+    } else if (target instanceof Map) {
+      return ((Map<?, ?>) target).size();
+    }
+    throw FALLBACK;
+  }
+
+  private static Object isEmpty(Object target) {
+    if (target instanceof Collection) {
+      return ((Collection<?>) target).isEmpty();
+    } else if (target instanceof Map) {
+      return ((Map<?, ?>) target).isEmpty();
+    } else if (target instanceof String) {
+      return ((String) target).isEmpty();
+    }
+    throw FALLBACK;
+  }
+
+  private static Object length(Object target) {
+    if (target instanceof CharSequence) {
+      return ((CharSequence) target).length();
+    }
+    throw FALLBACK;
+  }
+
+  // OgnlOps.booleanValue
+  static boolean booleanValue(Object value) {
+    if (value == null) {
+      return false;
+    }
+    Class<?> type = value.getClass();
+    if (type == Boolean.class) {
+      return (Boolean) value;
+    } else if (type == String.class) {
+      return Boolean.parseBoolean((String) value);
+    } else if (type == Character.class) {
+      return (Character) value != 0;
+    } else if (value instanceof Number) {
+      return ((Number) value).doubleValue() != 0;
+    }
+    return true;
+  }
+
+  // OgnlOps.equal, for the values compared without conversion or as long or double
+  private static boolean equal(Object v1, Object v2) {
+    if (v1 == null || v2 == null || v1 == v2) {
+      return v1 == v2;
+    }
+    Class<?> t1 = v1.getClass();
+    Class<?> t2 = v2.getClass();
+    if (isIntegral(t1) && isIntegral(t2)) {
+      return ((Number) v1).longValue() == ((Number) v2).longValue();
+    } else if (isNumber(t1) && isNumber(t2)) {
+      return ((Number) v1).doubleValue() == ((Number) v2).doubleValue();
+    } else if (t1 == t2 && (t1 == String.class || t1 == Boolean.class || t1 == Character.class || v1 instanceof Enum)) {
+      return v1.equals(v2);
+    }
+    throw FALLBACK;
+  }
+
+  // OgnlOps.compareWithConversion, for the values compared as long, double or strings
+  private static int compare(Object v1, Object v2) {
+    if (v1 == null || v2 == null) {
+      throw FALLBACK;
+    }
+    Class<?> t1 = v1.getClass();
+    Class<?> t2 = v2.getClass();
+    if (isIntegral(t1) && isIntegral(t2)) {
+      return Long.compare(((Number) v1).longValue(), ((Number) v2).longValue());
+    } else if (isNumber(t1) && isNumber(t2)) {
+      double d1 = ((Number) v1).doubleValue();
+      double d2 = ((Number) v2).doubleValue();
+      return d1 == d2 ? 0 : (d1 < d2 ? -1 : 1);
+    } else if (t1 == String.class && t2 == String.class) {
+      return ((String) v1).compareTo((String) v2);
+    }
+    throw FALLBACK;
+  }
+
+  private static boolean isIntegral(Class<?> type) {
+    return type == Integer.class || type == Long.class || type == Short.class || type == Byte.class;
+  }
+
+  private static boolean isNumber(Class<?> type) {
+    return isIntegral(type) || type == Double.class || type == Float.class;
+  }
+
+}
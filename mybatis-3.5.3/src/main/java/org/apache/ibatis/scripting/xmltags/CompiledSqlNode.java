@@ -0,0 +1,54 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Map;
+
+/**
+ * The superclass of the nodes generated by {@link SqlNodeCompiler}. The generated code refers to the nodes it
+ * applies as they are, the texts it appends and the tests it evaluates by their index in these arrays.
+ */
+abstract class CompiledSqlNode implements SqlNode {
+
+  protected final SqlNode[] nodes;
+  protected final String[] texts;
+  private final String[] tests;
+  private final CompiledExpression[] compiledTests;
+  private final boolean recordsShape;
+
+  protected CompiledSqlNode(SqlNode[] nodes, String[] texts, String[] tests, boolean recordsShape) {
+    this.nodes = nodes;
+    this.texts = texts;
+    this.tests = tests;
+    this.compiledTests = new CompiledExpression[tests.length];
+    for (int i = 0; i < tests.length; i++) {
+      compiledTests[i] = CompiledExpression.compile(tests[i]);
+    }
+    this.recordsShape = recordsShape;
+  }
+
+  /**
+   * Evaluates a test as {@link IfSqlNode} does.
+   */
+  protected final boolean test(int index, Map<String, Object> bindings) {
+    return ExpressionEvaluator.toBoolean(OgnlCache.getValue(compiledTests[index], tests[index], bindings));
+  }
+
+  boolean recordsShape() {
+    return recordsShape;
+  }
+
+}
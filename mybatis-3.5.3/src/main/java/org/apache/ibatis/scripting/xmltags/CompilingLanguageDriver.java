@@ -0,0 +1,57 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * An {@link XMLLanguageDriver} that compiles the dynamic SQL of each statement into a generated class when the
+ * statement is loaded. The generated code appends the static texts, evaluates the tests of the if, when and
+ * otherwise elements and applies the trim, where and set elements without walking the node tree on each execution.
+ * It builds the same SQL as the XML language driver, and the statements that cannot be compiled are interpreted
+ * as usual. The foreach and bind elements and the texts with <code>${}</code> substitutions are applied by their
+ * nodes, and the <code>#{}</code> parameters of the SQL built are parsed by the {@link DynamicSqlSource} as with
+ * the XML language driver.
+ * <p>
+ * Statements whose dynamic elements have the same structure share a class, and a bounded number of classes is
+ * generated, so scripts built on each execution by SQL providers do not define new classes once their structures
+ * are known. The driver is still meant to be enabled for the hot statements with <code>lang="COMPILED"</code>
+ * rather than as the default scripting language of a large application.
+ */
+public class CompilingLanguageDriver extends XMLLanguageDriver {
+
+  @Override
+  public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+    return compile(configuration, super.createSqlSource(configuration, script, parameterType));
+  }
+
+  @Override
+  public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+    return compile(configuration, super.createSqlSource(configuration, script, parameterType));
+  }
+
+  private SqlSource compile(Configuration configuration, SqlSource sqlSource) {
+    if (sqlSource.getClass() != DynamicSqlSource.class) {
+      return sqlSource;
+    }
+    SqlNode rootSqlNode = ((DynamicSqlSource) sqlSource).getRootSqlNode();
+    SqlNode compiledSqlNode = SqlNodeCompiler.compile(rootSqlNode);
+    return compiledSqlNode == rootSqlNode ? sqlSource : new DynamicSqlSource(configuration, compiledSqlNode);
+  }
+
+}
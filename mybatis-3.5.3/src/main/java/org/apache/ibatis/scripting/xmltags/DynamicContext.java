@@ -17,7 +17,6 @@ package org.apache.ibatis.scripting.xmltags;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.StringJoiner;
 
 import ognl.OgnlContext;
 import ognl.OgnlRuntime;
@@ -39,14 +38,26 @@ public class DynamicContext {
   }
 
   private final ContextMap bindings;
-  private final StringJoiner sqlBuilder = new StringJoiner(" ");
+  private final StringBuilder sqlBuilder;
+  private final StringBuilder shape;
+  private final boolean sqlDiscarded;
+  private boolean sqlAppended;
   private int uniqueNumber = 0;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
+    this(configuration, parameterObject, false, false);
+  }
+
+  /**
+   * @param shapeRecorded whether the decisions of the nodes are recorded, see {@link #getShape()}
+   * @param sqlDiscarded whether the SQL is discarded, when only the bindings and the shape are needed
+   */
+  DynamicContext(Configuration configuration, Object parameterObject, boolean shapeRecorded, boolean sqlDiscarded) {
+    this.sqlBuilder = new StringBuilder();
+    this.shape = shapeRecorded ? new StringBuilder() : null;
+    this.sqlDiscarded = sqlDiscarded;
     if (parameterObject != null && !(parameterObject instanceof Map)) {
-      MetaObject metaObject = configuration.newMetaObject(parameterObject);
-      boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
-      bindings = new ContextMap(metaObject, existsTypeHandler);
+      bindings = new ContextMap(configuration, parameterObject);
     } else {
       bindings = new ContextMap(null, false);
     }
@@ -54,6 +65,17 @@ public class DynamicContext {
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
   }
 
+  /**
+   * Creates a context that only forwards to another context, so it has no bindings nor SQL of its own and must
+   * override every public method.
+   */
+  DynamicContext() {
+    this.bindings = null;
+    this.sqlBuilder = null;
+    this.shape = null;
+    this.sqlDiscarded = false;
+  }
+
   public Map<String, Object> getBindings() {
     return bindings;
   }
@@ -63,34 +85,109 @@ public class DynamicContext {
   }
 
   public void appendSql(String sql) {
-    sqlBuilder.add(sql);
+    if (!sqlDiscarded) {
+      startAppend();
+      sqlBuilder.append(sql);
+    }
   }
 
   public String getSql() {
-    return sqlBuilder.toString().trim();
+    int start = 0;
+    int end = sqlBuilder.length();
+    while (start < end && sqlBuilder.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sqlBuilder.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return sqlBuilder.substring(start, end);
+  }
+
+  private void startAppend() {
+    if (sqlAppended) {
+      sqlBuilder.append(' ');
+    }
+    sqlAppended = true;
+  }
+
+  /**
+   * Starts appending a piece of SQL by writing it to the returned buffer, which is the same as appending the
+   * text written to it when the piece is complete. Returns null when the SQL is transformed or discarded by this
+   * context, so the piece must be built apart and appended as a whole.
+   */
+  StringBuilder openSqlBuffer() {
+    if (getClass() != DynamicContext.class || sqlDiscarded) {
+      return null;
+    }
+    startAppend();
+    return sqlBuilder;
   }
 
   public int getUniqueNumber() {
     return uniqueNumber++;
   }
 
+  /**
+   * Records a decision of a node that changes the SQL it appends, such as a branch taken or an item iterated.
+   */
+  public void recordShape(char decision) {
+    if (shape != null) {
+      shape.append(decision);
+    }
+  }
+
+  /**
+   * Records a value that is appended to the SQL as is, such as a <code>${}</code> substitution.
+   */
+  public void recordShape(String value) {
+    if (shape != null) {
+      shape.append(value.length()).append(':').append(value);
+    }
+  }
+
+  /**
+   * Returns the decisions recorded while applying the nodes. Two applications of the same nodes that record
+   * the same shape append the same SQL.
+   */
+  String getShape() {
+    return shape == null ? null : shape.toString();
+  }
+
+  boolean isSqlDiscarded() {
+    return sqlDiscarded;
+  }
+
   static class ContextMap extends HashMap<String, Object> {
     private static final long serialVersionUID = 2977601501966151582L;
-    private final MetaObject parameterMetaObject;
-    private final boolean fallbackParameterObject;
+    private MetaObject parameterMetaObject;
+    private boolean fallbackParameterObject;
+    // the parameter whose MetaObject is created on the first lookup of a name that is not bound
+    private transient Configuration configuration;
+    private transient Object parameterObject;
 
     public ContextMap(MetaObject parameterMetaObject, boolean fallbackParameterObject) {
       this.parameterMetaObject = parameterMetaObject;
       this.fallbackParameterObject = fallbackParameterObject;
     }
 
+    ContextMap(Configuration configuration, Object parameterObject) {
+      this.configuration = configuration;
+      this.parameterObject = parameterObject;
+    }
+
     @Override
     public Object get(Object key) {
       String strKey = (String) key;
-      if (super.containsKey(strKey)) {
-        return super.get(strKey);
+      Object value = super.get(strKey);
+      if (value != null || super.containsKey(strKey)) {
+        return value;
       }
 
+      if (parameterObject != null) {
+        parameterMetaObject = configuration.newMetaObject(parameterObject);
+        fallbackParameterObject = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
+        parameterObject = null;
+      }
       if (parameterMetaObject == null) {
         return null;
       }
@@ -15,34 +15,160 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 
 /**
+ * Builds the SQL of each execution by applying the nodes to the parameter object.
+ * <p>
+ * A statement usually produces a handful of distinct SQL texts, one per shape: the branches taken, the items
+ * iterated and the <code>${}</code> values substituted. When all the nodes are built-in nodes, which record their
+ * decisions in the {@link DynamicContext}, the parsed SQL and parameter mappings of each shape are kept and the
+ * following executions with the same shape only evaluate the expressions and bind the values, without building
+ * nor parsing the SQL. A statement producing more than 128 shapes stops being memoized.
+ *
  * @author Clinton Begin
  */
 public class DynamicSqlSource implements SqlSource {
 
+  private static final int MAX_SHAPES = 128;
+  private static final Class<?> NO_GETTER = void.class;
+
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final Map<String, ShapeSql> shapes = new ConcurrentHashMap<>();
+  private volatile boolean memoized;
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
     this.rootSqlNode = rootSqlNode;
+    this.memoized = recordsShape(rootSqlNode);
+  }
+
+  SqlNode getRootSqlNode() {
+    return rootSqlNode;
   }
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
-    DynamicContext context = new DynamicContext(configuration, parameterObject);
+    Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+    if (memoized && !shapes.isEmpty()) {
+      DynamicContext context = new DynamicContext(configuration, parameterObject, true, true);
+      rootSqlNode.apply(context);
+      ShapeSql shapeSql = shapes.get(context.getShape());
+      if (shapeSql != null && shapeSql.matches(parameterType, context.getBindings())) {
+        return createBoundSql(shapeSql.sql, shapeSql.parameterMappings, parameterObject, context);
+      }
+    }
+    DynamicContext context = new DynamicContext(configuration, parameterObject, memoized, false);
     rootSqlNode.apply(context);
     SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
-    Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
     SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
-    context.getBindings().forEach(boundSql::setAdditionalParameter);
-    return boundSql;
+    if (memoized) {
+      memoize(context, parameterType, boundSql);
+    }
+    return createBoundSql(boundSql.getSql(), boundSql.getParameterMappings(), parameterObject, context);
+  }
+
+  private BoundSql createBoundSql(String sql, List<ParameterMapping> parameterMappings, Object parameterObject, DynamicContext context) {
+    // the bindings are only read from now on, so they become the additional parameters as they are
+    return new BoundSql(configuration, sql, parameterMappings, parameterObject, context.getBindings());
+  }
+
+  private void memoize(DynamicContext context, Class<?> parameterType, BoundSql boundSql) {
+    String shape = context.getShape();
+    if (shapes.size() >= MAX_SHAPES && !shapes.containsKey(shape)) {
+      memoized = false;
+      shapes.clear();
+      return;
+    }
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    Class<?>[] bindingTypes = new Class<?>[parameterMappings.size()];
+    MetaObject metaBindings = null;
+    for (int i = 0; i < bindingTypes.length; i++) {
+      String property = parameterMappings.get(i).getProperty();
+      if (isBound(property, context.getBindings())) {
+        metaBindings = metaBindings == null ? configuration.newMetaObject(context.getBindings()) : metaBindings;
+        bindingTypes[i] = getBindingType(metaBindings, property);
+      }
+    }
+    shapes.put(shape, new ShapeSql(boundSql.getSql(), parameterMappings, parameterType, bindingTypes));
+  }
+
+  private static boolean isBound(String property, Map<String, Object> bindings) {
+    return property != null && bindings.containsKey(new PropertyTokenizer(property).getIndexedName());
+  }
+
+  private static Class<?> getBindingType(MetaObject metaBindings, String property) {
+    // the type of the parameters read from the bindings depends on their values, see SqlSourceBuilder
+    return metaBindings.hasGetter(property) ? metaBindings.getGetterType(property) : NO_GETTER;
+  }
+
+  static boolean recordsShape(SqlNode node) {
+    if (node instanceof CompiledSqlNode) {
+      return ((CompiledSqlNode) node).recordsShape();
+    }
+    Class<?> type = node.getClass();
+    if (type == StaticTextSqlNode.class || type == TextSqlNode.class || type == VarDeclSqlNode.class) {
+      return true;
+    } else if (type == MixedSqlNode.class) {
+      return ((MixedSqlNode) node).getContents().stream().allMatch(DynamicSqlSource::recordsShape);
+    } else if (type == IfSqlNode.class) {
+      return recordsShape(((IfSqlNode) node).getContents());
+    } else if (type == ChooseSqlNode.class) {
+      ChooseSqlNode chooseSqlNode = (ChooseSqlNode) node;
+      return chooseSqlNode.getIfSqlNodes().stream().allMatch(n -> n.getClass() == IfSqlNode.class && recordsShape(n))
+          && (chooseSqlNode.getDefaultSqlNode() == null || recordsShape(chooseSqlNode.getDefaultSqlNode()));
+    } else if (type == ForEachSqlNode.class) {
+      return recordsShape(((ForEachSqlNode) node).getContents());
+    } else if (type == TrimSqlNode.class || type == WhereSqlNode.class || type == SetSqlNode.class) {
+      return recordsShape(((TrimSqlNode) node).getContents());
+    }
+    return false;
+  }
+
+  private class ShapeSql {
+    private final String sql;
+    private final List<ParameterMapping> parameterMappings;
+    private final Class<?> parameterType;
+    private final Class<?>[] bindingTypes;
+
+    private ShapeSql(String sql, List<ParameterMapping> parameterMappings, Class<?> parameterType, Class<?>[] bindingTypes) {
+      this.sql = sql;
+      this.parameterMappings = parameterMappings;
+      this.parameterType = parameterType;
+      this.bindingTypes = bindingTypes;
+    }
+
+    private boolean matches(Class<?> parameterType, Map<String, Object> bindings) {
+      if (this.parameterType != parameterType) {
+        return false;
+      }
+      MetaObject metaBindings = null;
+      for (int i = 0; i < bindingTypes.length; i++) {
+        String property = parameterMappings.get(i).getProperty();
+        Class<?> bindingType = null;
+        if (isBound(property, bindings)) {
+          metaBindings = metaBindings == null ? configuration.newMetaObject(bindings) : metaBindings;
+          bindingType = getBindingType(metaBindings, property);
+        }
+        if (!Objects.equals(bindingTypes[i], bindingType)) {
+          return false;
+        }
+      }
+      return true;
+    }
   }
 
 }
@@ -29,7 +29,10 @@ import org.apache.ibatis.builder.BuilderException;
 public class ExpressionEvaluator {
 
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    return toBoolean(OgnlCache.getValue(expression, parameterObject));
+  }
+
+  static boolean toBoolean(Object value) {
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -15,17 +15,48 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
-import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.executor.dialect.Dialect;
+import org.apache.ibatis.parsing.TokenHandler;
+import org.apache.ibatis.parsing.TokenTemplate;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.ArrayTypeHandler;
 
 /**
+ * Iterates over a collection.
+ * <p>
+ * When the collection is an IN list ({@code inList="true"}) the number of placeholders is rounded up to the next
+ * power of two by repeating the last item, so that lists of different sizes share a few SQL texts and prepared
+ * statements. When the body is just the item placeholder and the {@link Dialect} can read an IN list from an
+ * array, the items are bound as a single JDBC array instead.
+ *
  * @author Clinton Begin
  */
 public class ForEachSqlNode implements SqlNode {
   public static final String ITEM_PREFIX = "__frch_";
 
+  private static final int ITEM_TEMPLATE_LIMIT = 64;
+
+  // the types ArrayTypeHandler maps to an SQL array type
+  private static final Set<Class<?>> ARRAY_ITEM_TYPES = new HashSet<>(Arrays.asList(String.class, Integer.class,
+      Long.class, Short.class, Byte.class, BigDecimal.class, BigInteger.class, Double.class, Float.class,
+      Boolean.class, java.sql.Date.class, Timestamp.class, LocalDate.class, LocalDateTime.class));
+
   private final ExpressionEvaluator evaluator;
   private final String collectionExpression;
   private final SqlNode contents;
@@ -35,8 +66,18 @@ public class ForEachSqlNode implements SqlNode {
   private final String item;
   private final String index;
   private final Configuration configuration;
+  private final boolean inList;
+  private final boolean itemPlaceholderOnly;
+  private final Pattern itemPattern;
+  private final Pattern indexPattern;
+  // the texts appended by the contents, which are the same for each item unless they have ${} substitutions
+  private final Map<String, TokenTemplate> itemTemplates = new ConcurrentHashMap<>();
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, false);
+  }
+
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, boolean inList) {
     this.evaluator = new ExpressionEvaluator();
     this.collectionExpression = collectionExpression;
     this.contents = contents;
@@ -46,49 +87,144 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.inList = inList;
+    this.itemPlaceholderOnly = item != null && isItemPlaceholder(contents, item);
+    this.itemPattern = Pattern.compile("^\\s*" + item + "(?![^.,:\\s])");
+    this.indexPattern = Pattern.compile("^\\s*" + index + "(?![^.,:\\s])");
+  }
+
+  private static boolean isItemPlaceholder(SqlNode contents, String item) {
+    if (contents instanceof MixedSqlNode && ((MixedSqlNode) contents).getContents().size() == 1) {
+      contents = ((MixedSqlNode) contents).getContents().get(0);
+    }
+    if (contents.getClass() != StaticTextSqlNode.class) {
+      return false;
+    }
+    String text = ((StaticTextSqlNode) contents).getText().trim();
+    return text.startsWith("#{") && text.endsWith("}") && text.indexOf('}') == text.length() - 1
+        && Pattern.matches("\\s*" + Pattern.quote(item) + "\\s*", text.substring(2, text.length() - 1));
   }
 
   @Override
   public boolean apply(DynamicContext context) {
     Map<String, Object> bindings = context.getBindings();
-    final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings);
+    Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings);
+    if (inList) {
+      if (applyArray(context, iterable)) {
+        return true;
+      }
+      iterable = pad(iterable);
+    }
+    context.recordShape('(');
     if (!iterable.iterator().hasNext()) {
+      context.recordShape(')');
       return true;
     }
     boolean first = true;
     applyOpen(context);
     int i = 0;
+    // the contexts of the items are reset for each item rather than created
+    PrefixedContext prefixedContext = new PrefixedContext(context);
+    FilteredDynamicContext filteredContext = new FilteredDynamicContext(prefixedContext);
     for (Object o : iterable) {
-      DynamicContext oldContext = context;
+      context.recordShape('|');
       if (first || separator == null) {
-        context = new PrefixedContext(context, "");
+        prefixedContext.reset("");
       } else {
-        context = new PrefixedContext(context, separator);
+        prefixedContext.reset(separator);
       }
-      int uniqueNumber = context.getUniqueNumber();
+      int uniqueNumber = prefixedContext.getUniqueNumber();
       // Issue #709
       if (o instanceof Map.Entry) {
         @SuppressWarnings("unchecked")
         Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-        applyIndex(context, mapEntry.getKey(), uniqueNumber);
-        applyItem(context, mapEntry.getValue(), uniqueNumber);
+        applyIndex(prefixedContext, mapEntry.getKey(), uniqueNumber);
+        applyItem(prefixedContext, mapEntry.getValue(), uniqueNumber);
       } else {
-        applyIndex(context, i, uniqueNumber);
-        applyItem(context, o, uniqueNumber);
+        applyIndex(prefixedContext, i, uniqueNumber);
+        applyItem(prefixedContext, o, uniqueNumber);
       }
-      contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
+      filteredContext.reset(uniqueNumber);
+      contents.apply(filteredContext);
       if (first) {
-        first = !((PrefixedContext) context).isPrefixApplied();
+        first = !prefixedContext.isPrefixApplied();
       }
-      context = oldContext;
       i++;
     }
+    context.recordShape(')');
     applyClose(context);
     context.getBindings().remove(item);
     context.getBindings().remove(index);
     return true;
   }
 
+  private boolean applyArray(DynamicContext context, Iterable<?> iterable) {
+    final Dialect dialect = configuration.getDialect();
+    if (!itemPlaceholderOnly || dialect == null) {
+      return false;
+    }
+    final Object array = toArray(iterable);
+    if (array == null) {
+      return false;
+    }
+    final String name = itemizeItem(item, context.getUniqueNumber());
+    final String sql = dialect.getArrayInListSql("#{" + name + ",typeHandler=" + ArrayTypeHandler.class.getName() + "}");
+    if (sql == null) {
+      return false;
+    }
+    context.recordShape('[');
+    context.bind(name, array);
+    applyOpen(context);
+    context.appendSql(sql);
+    applyClose(context);
+    return true;
+  }
+
+  // an array of the type of the items, or null when they are not all of a single supported type
+  private static Object toArray(Iterable<?> iterable) {
+    final List<Object> items = new ArrayList<>();
+    Class<?> type = null;
+    for (Object o : iterable) {
+      if (o != null) {
+        if (type == null) {
+          type = o.getClass();
+        } else if (type != o.getClass()) {
+          return null;
+        }
+      }
+      items.add(o);
+    }
+    if (type == null || !ARRAY_ITEM_TYPES.contains(type)) {
+      return null;
+    }
+    return items.toArray((Object[]) Array.newInstance(type, items.size()));
+  }
+
+  // repeats the last item up to the next power of two, which does not change the result of an IN list
+  private static Iterable<?> pad(Iterable<?> iterable) {
+    final int size;
+    final List<Object> items;
+    if (iterable instanceof Collection) {
+      size = ((Collection<?>) iterable).size();
+      if ((size & (size - 1)) == 0) {
+        return iterable;
+      }
+      items = new ArrayList<>((Collection<?>) iterable);
+    } else {
+      items = new ArrayList<>();
+      iterable.forEach(items::add);
+      size = items.size();
+    }
+    if (size > 1) {
+      final int bucket = Integer.highestOneBit(size - 1) << 1;
+      final Object last = items.get(size - 1);
+      while (items.size() < bucket) {
+        items.add(last);
+      }
+    }
+    return items;
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -115,22 +251,57 @@ public class ForEachSqlNode implements SqlNode {
     }
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  private static boolean hasText(String sql) {
+    if (sql != null) {
+      for (int i = 0; i < sql.length(); i++) {
+        if (sql.charAt(i) > ' ') {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private TokenTemplate getItemTemplate(String sql) {
+    if (sql == null) {
+      return TokenTemplate.compile("#{", "}", null);
+    }
+    TokenTemplate template = itemTemplates.get(sql);
+    if (template == null) {
+      template = TokenTemplate.compile("#{", "}", sql);
+      if (itemTemplates.size() < ITEM_TEMPLATE_LIMIT) {
+        itemTemplates.put(sql, template);
+      }
+    }
+    return template;
+  }
+
   private static String itemizeItem(String item, int i) {
     return ITEM_PREFIX + item + "_" + i;
   }
 
-  private static class FilteredDynamicContext extends DynamicContext {
+  private class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;
-    private final int index;
-    private final String itemIndex;
-    private final String item;
+    private final TokenHandler handler;
+    private int uniqueNumber;
 
-    public FilteredDynamicContext(Configuration configuration,DynamicContext delegate, String itemIndex, String item, int i) {
-      super(configuration, null);
+    public FilteredDynamicContext(DynamicContext delegate) {
       this.delegate = delegate;
-      this.index = i;
-      this.itemIndex = itemIndex;
-      this.item = item;
+      this.handler = content -> {
+        String newContent = itemPattern.matcher(content).replaceFirst(itemizeItem(item, uniqueNumber));
+        if (index != null && newContent.equals(content)) {
+          newContent = indexPattern.matcher(content).replaceFirst(itemizeItem(index, uniqueNumber));
+        }
+        return "#{" + newContent + "}";
+      };
+    }
+
+    public void reset(int i) {
+      this.uniqueNumber = i;
     }
 
     @Override
@@ -150,15 +321,12 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-        if (itemIndex != null && newContent.equals(content)) {
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-        }
-        return "#{" + newContent + "}";
-      });
-
-      delegate.appendSql(parser.parse(sql));
+      if (delegate.isSqlDiscarded()) {
+        // the parameter names do not change whether the text is empty
+        delegate.appendSql(sql);
+        return;
+      }
+      delegate.appendSql(getItemTemplate(sql).render(handler));
     }
 
     @Override
@@ -166,17 +334,34 @@ public class ForEachSqlNode implements SqlNode {
       return delegate.getUniqueNumber();
     }
 
+    @Override
+    public void recordShape(char decision) {
+      delegate.recordShape(decision);
+    }
+
+    @Override
+    public void recordShape(String value) {
+      delegate.recordShape(value);
+    }
+
+    @Override
+    boolean isSqlDiscarded() {
+      return delegate.isSqlDiscarded();
+    }
+
   }
 
 
-  private class PrefixedContext extends DynamicContext {
+  private static class PrefixedContext extends DynamicContext {
     private final DynamicContext delegate;
-    private final String prefix;
+    private String prefix;
     private boolean prefixApplied;
 
-    public PrefixedContext(DynamicContext delegate, String prefix) {
-      super(configuration, null);
+    public PrefixedContext(DynamicContext delegate) {
       this.delegate = delegate;
+    }
+
+    public void reset(String prefix) {
       this.prefix = prefix;
       this.prefixApplied = false;
     }
@@ -197,7 +382,7 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      if (!prefixApplied && sql != null && sql.trim().length() > 0) {
+      if (!prefixApplied && hasText(sql)) {
         delegate.appendSql(prefix);
         prefixApplied = true;
       }
@@ -213,6 +398,21 @@ public class ForEachSqlNode implements SqlNode {
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
     }
+
+    @Override
+    public void recordShape(char decision) {
+      delegate.recordShape(decision);
+    }
+
+    @Override
+    public void recordShape(String value) {
+      delegate.recordShape(value);
+    }
+
+    @Override
+    boolean isSqlDiscarded() {
+      return delegate.isSqlDiscarded();
+    }
   }
 
 }
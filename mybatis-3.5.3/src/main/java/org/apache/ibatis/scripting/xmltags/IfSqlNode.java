@@ -32,10 +32,20 @@ public class IfSqlNode implements SqlNode {
   @Override
   public boolean apply(DynamicContext context) {
     if (evaluator.evaluateBoolean(test, context.getBindings())) {
+      context.recordShape('T');
       contents.apply(context);
       return true;
     }
+    context.recordShape('F');
     return false;
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  String getTest() {
+    return test;
+  }
+
 }
@@ -25,6 +25,9 @@ import org.apache.ibatis.builder.BuilderException;
 
 /**
  * Caches OGNL parsed expressions.
+ * <p>
+ * Expressions of the subset handled by {@link CompiledExpression} are evaluated without OGNL, unless their values
+ * require it.
  *
  * @author Eduardo Macarron
  *
@@ -35,12 +38,34 @@ public final class OgnlCache {
   private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
   private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
   private static final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+  private static final Map<String, Object> compiledExpressionCache = new ConcurrentHashMap<>();
+  private static final Object NOT_COMPILED = new Object();
 
   private OgnlCache() {
     // Prevent Instantiation of Static Class
   }
 
   public static Object getValue(String expression, Object root) {
+    Object compiled = compiledExpressionCache.get(expression);
+    if (compiled == null) {
+      compiled = CompiledExpression.compile(expression);
+      compiled = compiled == null ? NOT_COMPILED : compiled;
+      compiledExpressionCache.put(expression, compiled);
+    }
+    return getValue(compiled == NOT_COMPILED ? null : (CompiledExpression) compiled, expression, root);
+  }
+
+  /**
+   * Evaluates an expression that has been compiled beforehand, or by OGNL when it could not be compiled.
+   */
+  static Object getValue(CompiledExpression compiled, String expression, Object root) {
+    if (compiled != null) {
+      try {
+        return compiled.evaluate(root);
+      } catch (CompiledExpression.Fallback e) {
+        // evaluated by OGNL
+      }
+    }
     try {
       Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
       return Ognl.getValue(parseExpression(expression), context, root);
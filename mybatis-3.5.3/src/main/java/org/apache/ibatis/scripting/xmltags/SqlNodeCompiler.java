@@ -0,0 +1,174 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Generates with javassist a {@link CompiledSqlNode} class whose <code>apply</code> method does what applying a
+ * tree of nodes does, with straight-line code: static texts are appended, the tests of if, when and otherwise
+ * elements become if statements and trim, where and set elements are inlined around their contents. The other
+ * nodes, such as foreach, bind or texts with <code>${}</code> substitutions, are applied as they are.
+ * <p>
+ * Only the SQL is built by the generated code: its <code>#{}</code> parameters are still parsed into parameter
+ * mappings by the {@link DynamicSqlSource}, which keeps them for each shape of the statement.
+ * <p>
+ * The classes are cached by their code, which only depends on the structure of the tree, and their number is
+ * bounded: once the limit is reached, the trees of a new structure are interpreted as usual.
+ */
+final class SqlNodeCompiler {
+
+  private static final Log log = LogFactory.getLog(SqlNodeCompiler.class);
+  private static final AtomicInteger classCounter = new AtomicInteger();
+  // scripts built on each execution, by SQL providers for example, must not define a class each time
+  private static final int MAX_GENERATED_CLASSES = 512;
+  private static final ConcurrentMap<String, Optional<Constructor<? extends CompiledSqlNode>>> constructors = new ConcurrentHashMap<>();
+
+  private static final String CONTEXT_TYPE = DynamicContext.class.getName();
+  private static final String TRIM_TYPE = TrimSqlNode.class.getName();
+
+  private final List<SqlNode> nodes = new ArrayList<>();
+  private final List<String> texts = new ArrayList<>();
+  private final List<String> tests = new ArrayList<>();
+  private final StringBuilder body = new StringBuilder();
+  private int contextCounter;
+
+  private SqlNodeCompiler() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Returns a generated node that applies the given node, or the node itself when no class can be generated.
+   */
+  static SqlNode compile(SqlNode rootSqlNode) {
+    if (rootSqlNode instanceof CompiledSqlNode) {
+      return rootSqlNode;
+    }
+    SqlNodeCompiler compiler = new SqlNodeCompiler();
+    compiler.append(rootSqlNode, "c0");
+    // the code only refers to the nodes, texts and tests by index, so trees of the same structure share a class
+    final String source = "public boolean apply(" + CONTEXT_TYPE + " c0) {\n" + compiler.body + "return true;\n}";
+    Optional<Constructor<? extends CompiledSqlNode>> constructor = constructors.get(source);
+    if (constructor == null) {
+      if (constructors.size() >= MAX_GENERATED_CLASSES) {
+        if (log.isDebugEnabled()) {
+          log.debug("Not compiling the SQL nodes, " + MAX_GENERATED_CLASSES + " classes have already been generated.");
+        }
+        return rootSqlNode;
+      }
+      constructor = constructors.computeIfAbsent(source, k -> Optional.ofNullable(generate(k)));
+    }
+    if (!constructor.isPresent()) {
+      return rootSqlNode;
+    }
+    try {
+      return constructor.get().newInstance(compiler.nodes.toArray(new SqlNode[0]), compiler.texts.toArray(new String[0]),
+          compiler.tests.toArray(new String[0]), DynamicSqlSource.recordsShape(rootSqlNode));
+    } catch (ReflectiveOperationException e) {
+      log.debug("Could not instantiate the compiled SQL nodes. Cause: " + e);
+      return rootSqlNode;
+    }
+  }
+
+  private static Constructor<? extends CompiledSqlNode> generate(String applySource) {
+    final String className = CompiledSqlNode.class.getName() + "$$" + classCounter.incrementAndGet();
+    try {
+      final ClassPool pool = new ClassPool(true);
+      pool.appendClassPath(new LoaderClassPath(CompiledSqlNode.class.getClassLoader()));
+      final CtClass ctClass = pool.makeClass(className, pool.get(CompiledSqlNode.class.getName()));
+      ctClass.addConstructor(CtNewConstructor.make("public " + ctClass.getSimpleName() + "("
+          + SqlNode.class.getName() + "[] nodes, String[] texts, String[] tests, boolean recordsShape) { super($$); }", ctClass));
+      ctClass.addMethod(CtNewMethod.make(applySource, ctClass));
+      // defined next to CompiledSqlNode, so that it can call the package private methods of the nodes
+      final Class<? extends CompiledSqlNode> nodeClass = ctClass.toClass(CompiledSqlNode.class).asSubclass(CompiledSqlNode.class);
+      ctClass.detach();
+      return nodeClass.getConstructor(SqlNode[].class, String[].class, String[].class, boolean.class);
+    } catch (Exception | LinkageError e) {
+      log.debug("Could not compile the SQL nodes. Cause: " + e);
+      return null;
+    }
+  }
+
+  static int generatedClassCount() {
+    return constructors.size();
+  }
+
+  private void append(SqlNode node, String context) {
+    final Class<?> type = node.getClass();
+    if (type == StaticTextSqlNode.class) {
+      body.append(context).append(".appendSql(texts[").append(texts.size()).append("]);\n");
+      texts.add(((StaticTextSqlNode) node).getText());
+    } else if (type == MixedSqlNode.class) {
+      for (SqlNode child : ((MixedSqlNode) node).getContents()) {
+        append(child, context);
+      }
+    } else if (type == IfSqlNode.class) {
+      appendBranches(new SqlNode[] { node }, 0, null, context);
+    } else if (type == ChooseSqlNode.class && isIfSqlNodes(((ChooseSqlNode) node).getIfSqlNodes())) {
+      ChooseSqlNode chooseSqlNode = (ChooseSqlNode) node;
+      appendBranches(chooseSqlNode.getIfSqlNodes().toArray(new SqlNode[0]), 0, chooseSqlNode.getDefaultSqlNode(), context);
+    } else if (type == TrimSqlNode.class || type == WhereSqlNode.class || type == SetSqlNode.class) {
+      final String trim = "((" + TRIM_TYPE + ") nodes[" + nodes.size() + "])";
+      final String trimContext = "c" + (++contextCounter);
+      nodes.add(node);
+      body.append("{\n").append(CONTEXT_TYPE).append(' ').append(trimContext).append(" = ").append(trim)
+          .append(".open(").append(context).append(");\n");
+      append(((TrimSqlNode) node).getContents(), trimContext);
+      body.append(trim).append(".close(").append(trimContext).append(");\n}\n");
+    } else {
+      body.append("nodes[").append(nodes.size()).append("].apply(").append(context).append(");\n");
+      nodes.add(node);
+    }
+  }
+
+  // the branches are tried in turn as ChooseSqlNode does, each one recording its decision as IfSqlNode does
+  private void appendBranches(SqlNode[] branches, int index, SqlNode defaultSqlNode, String context) {
+    if (index == branches.length) {
+      if (defaultSqlNode != null) {
+        append(defaultSqlNode, context);
+      }
+      return;
+    }
+    final IfSqlNode branch = (IfSqlNode) branches[index];
+    body.append("if (test(").append(tests.size()).append(", ").append(context).append(".getBindings())) {\n")
+        .append(context).append(".recordShape('T');\n");
+    tests.add(branch.getTest());
+    append(branch.getContents(), context);
+    body.append("} else {\n").append(context).append(".recordShape('F');\n");
+    appendBranches(branches, index + 1, defaultSqlNode, context);
+    body.append("}\n");
+  }
+
+  private static boolean isIfSqlNodes(List<SqlNode> sqlNodes) {
+    return sqlNodes.stream().allMatch(n -> n.getClass() == IfSqlNode.class);
+  }
+
+}
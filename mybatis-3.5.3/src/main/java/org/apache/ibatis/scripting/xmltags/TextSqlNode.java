@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -23,11 +25,19 @@ import org.apache.ibatis.scripting.ScriptingException;
 import org.apache.ibatis.type.SimpleTypeRegistry;
 
 /**
+ * Appends a text with <code>${}</code> substitutions.
+ * <p>
+ * The text is split once into the literal texts and the expressions of the substitutions, and each expression is
+ * compiled beforehand when it can be, so applying the node only evaluates the expressions and joins the segments.
+ *
  * @author Clinton Begin
  */
 public class TextSqlNode implements SqlNode {
   private final String text;
   private final Pattern injectionFilter;
+  // the literal texts at even indexes and the expressions at odd indexes
+  private final String[] segments;
+  private final CompiledExpression[] compiledExpressions;
 
   public TextSqlNode(String text) {
     this(text, null);
@@ -36,73 +46,51 @@ public class TextSqlNode implements SqlNode {
   public TextSqlNode(String text, Pattern injectionFilter) {
     this.text = text;
     this.injectionFilter = injectionFilter;
+    List<String> split = createParser(null).split(text);  // 令牌解析器， 其实就是${}
+    this.segments = split.toArray(new String[0]);
+    this.compiledExpressions = new CompiledExpression[segments.length];
+    for (int i = 1; i < segments.length; i += 2) {
+      compiledExpressions[i] = CompiledExpression.compile(segments[i]);
+    }
   }
 
   public boolean isDynamic() {
-    DynamicCheckerTokenParser checker = new DynamicCheckerTokenParser();
-    GenericTokenParser parser = createParser(checker);  // 令牌解析器， 其实就是${}
-    parser.parse(text);
-    return checker.isDynamic();
+    return segments.length > 1;
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-    context.appendSql(parser.parse(text));
-    return true;
-  }
-
-  private GenericTokenParser createParser(TokenHandler handler) {
-    return new GenericTokenParser("${", "}", handler);
-  }
-
-  private static class BindingTokenParser implements TokenHandler {
-
-    private DynamicContext context;
-    private Pattern injectionFilter;
-
-    public BindingTokenParser(DynamicContext context, Pattern injectionFilter) {
-      this.context = context;
-      this.injectionFilter = injectionFilter;
+    if (segments.length == 1) {
+      context.appendSql(segments[0]);
+      return true;
     }
-
-    @Override
-    public String handleToken(String content) {
-      Object parameter = context.getBindings().get("_parameter");
-      if (parameter == null) {
-        context.getBindings().put("value", null);
-      } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
-        context.getBindings().put("value", parameter);
-      }
-      Object value = OgnlCache.getValue(content, context.getBindings());
+    Map<String, Object> bindings = context.getBindings();
+    Object parameter = bindings.get("_parameter");
+    if (parameter == null) {
+      bindings.put("value", null);
+    } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
+      bindings.put("value", parameter);
+    }
+    StringBuilder sql = new StringBuilder(text.length());
+    sql.append(segments[0]);
+    for (int i = 1; i < segments.length; i += 2) {
+      Object value = OgnlCache.getValue(compiledExpressions[i], segments[i], bindings);
       String srtValue = value == null ? "" : String.valueOf(value); // issue #274 return "" instead of "null"
       checkInjection(srtValue);
-      return srtValue;
-    }
-
-    private void checkInjection(String value) {
-      if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
-        throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
-      }
+      context.recordShape(srtValue);
+      sql.append(srtValue).append(segments[i + 1]);
     }
+    context.appendSql(sql.toString());
+    return true;
   }
 
-  private static class DynamicCheckerTokenParser implements TokenHandler {
-
-    private boolean isDynamic;
-
-    public DynamicCheckerTokenParser() {
-      // Prevent Synthetic Access
-    }
-
-    public boolean isDynamic() {
-      return isDynamic;
-    }
+  private GenericTokenParser createParser(TokenHandler handler) {
+    return new GenericTokenParser("${", "}", handler);
+  }
 
-    @Override
-    public String handleToken(String content) {
-      this.isDynamic = true;
-      return null;
+  private void checkInjection(String value) {
+    if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
+      throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
     }
   }
 
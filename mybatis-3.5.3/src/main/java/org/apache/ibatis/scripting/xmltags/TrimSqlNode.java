@@ -51,12 +51,27 @@ public class TrimSqlNode implements SqlNode {
 
   @Override
   public boolean apply(DynamicContext context) {
-    FilteredDynamicContext filteredDynamicContext = new FilteredDynamicContext(context);
+    DynamicContext filteredDynamicContext = open(context);
     boolean result = contents.apply(filteredDynamicContext);
-    filteredDynamicContext.applyAll();
+    close(filteredDynamicContext);
     return result;
   }
 
+  /**
+   * Returns the context to apply the contents to, which must then be passed to {@link #close(DynamicContext)}.
+   */
+  DynamicContext open(DynamicContext context) {
+    return new FilteredDynamicContext(context);
+  }
+
+  void close(DynamicContext filteredDynamicContext) {
+    ((FilteredDynamicContext) filteredDynamicContext).applyAll();
+  }
+
+  SqlNode getContents() {
+    return contents;
+  }
+
   private static List<String> parseOverrides(String overrides) {
     if (overrides != null) {
       final StringTokenizer parser = new StringTokenizer(overrides, "|", false);
@@ -69,28 +84,89 @@ public class TrimSqlNode implements SqlNode {
     return Collections.emptyList();
   }
 
+  /**
+   * Writes the SQL of the contents to the buffer of the delegate when it can, after the prefix, and then trims the
+   * written text in place, so the contents are neither copied nor upper-cased to apply the overrides.
+   */
   private class FilteredDynamicContext extends DynamicContext {
-    private DynamicContext delegate;
-    private boolean prefixApplied;
-    private boolean suffixApplied;
-    private StringBuilder sqlBuffer;
+    private final DynamicContext delegate;
+    private final StringBuilder sqlBuffer;
+    private final boolean sqlBufferShared;
+    private final int start;
+    private final int contentStart;
 
     public FilteredDynamicContext(DynamicContext delegate) {
-      super(configuration, null);
       this.delegate = delegate;
-      this.prefixApplied = false;
-      this.suffixApplied = false;
-      this.sqlBuffer = new StringBuilder();
+      StringBuilder delegateBuffer = delegate.openSqlBuffer();
+      this.sqlBufferShared = delegateBuffer != null;
+      this.sqlBuffer = sqlBufferShared ? delegateBuffer : new StringBuilder();
+      this.start = sqlBuffer.length();
+      if (prefix != null) {
+        sqlBuffer.append(prefix).append(' ');
+      }
+      this.contentStart = sqlBuffer.length();
     }
 
     public void applyAll() {
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);
-        applySuffix(sqlBuffer, trimmedUppercaseSql);
+      int begin = contentStart;
+      int end = sqlBuffer.length();
+      while (begin < end && sqlBuffer.charAt(begin) <= ' ') {
+        begin++;
+      }
+      while (end > begin && sqlBuffer.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      if (begin == end) {
+        sqlBuffer.setLength(start);
+      } else {
+        int suffixLength = overriddenSuffixLength(begin, end);
+        begin += overriddenPrefixLength(begin, end);
+        sqlBuffer.setLength(Math.max(begin, end - suffixLength));
+        sqlBuffer.delete(contentStart, begin);
+        if (suffix != null) {
+          sqlBuffer.append(' ').append(suffix);
+        }
+      }
+      if (!sqlBufferShared) {
+        delegate.appendSql(sqlBuffer.toString());
+      }
+    }
+
+    private int overriddenPrefixLength(int begin, int end) {
+      if (prefixesToOverride != null) {
+        for (String toRemove : prefixesToOverride) {
+          if (matchesIgnoreCase(begin, end, begin, toRemove)) {
+            return toRemove.trim().length();
+          }
+        }
+      }
+      return 0;
+    }
+
+    private int overriddenSuffixLength(int begin, int end) {
+      if (suffixesToOverride != null) {
+        for (String toRemove : suffixesToOverride) {
+          String trimmed = toRemove.trim();
+          if (matchesIgnoreCase(begin, end, end - toRemove.length(), toRemove)
+              || matchesIgnoreCase(begin, end, end - trimmed.length(), trimmed)) {
+            return trimmed.length();
+          }
+        }
       }
-      delegate.appendSql(sqlBuffer.toString());
+      return 0;
+    }
+
+    // whether the buffer holds the upper-cased text at offset, within begin and end
+    private boolean matchesIgnoreCase(int begin, int end, int offset, String upperCaseText) {
+      if (offset < begin || offset + upperCaseText.length() > end) {
+        return false;
+      }
+      for (int i = 0; i < upperCaseText.length(); i++) {
+        if (Character.toUpperCase(sqlBuffer.charAt(offset + i)) != upperCaseText.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
     }
 
     @Override
@@ -108,6 +184,16 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getUniqueNumber();
     }
 
+    @Override
+    public void recordShape(char decision) {
+      delegate.recordShape(decision);
+    }
+
+    @Override
+    public void recordShape(String value) {
+      delegate.recordShape(value);
+    }
+
     @Override
     public void appendSql(String sql) {
       sqlBuffer.append(sql);
@@ -118,42 +204,14 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
-      if (!prefixApplied) {
-        prefixApplied = true;
-        if (prefixesToOverride != null) {
-          for (String toRemove : prefixesToOverride) {
-            if (trimmedUppercaseSql.startsWith(toRemove)) {
-              sql.delete(0, toRemove.trim().length());
-              break;
-            }
-          }
-        }
-        if (prefix != null) {
-          sql.insert(0, " ");
-          sql.insert(0, prefix);
-        }
-      }
+    @Override
+    StringBuilder openSqlBuffer() {
+      return sqlBuffer;
     }
 
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
-      if (!suffixApplied) {
-        suffixApplied = true;
-        if (suffixesToOverride != null) {
-          for (String toRemove : suffixesToOverride) {
-            if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
-              int start = sql.length() - toRemove.trim().length();
-              int end = sql.length();
-              sql.delete(start, end);
-              break;
-            }
-          }
-        }
-        if (suffix != null) {
-          sql.append(" ");
-          sql.append(suffix);
-        }
-      }
+    @Override
+    boolean isSqlDiscarded() {
+      return delegate.isSqlDiscarded();
     }
 
   }
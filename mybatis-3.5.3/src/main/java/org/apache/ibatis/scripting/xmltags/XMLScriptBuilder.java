@@ -17,6 +17,8 @@ package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.scripting.defaults.RawSqlSource;
@@ -34,6 +36,8 @@ import java.util.Map;
  */
 public class XMLScriptBuilder extends BaseBuilder {
 
+  private static final Log log = LogFactory.getLog(XMLScriptBuilder.class);
+
   private final XNode context;
   private boolean isDynamic;
   private final Class<?> parameterType;
@@ -74,13 +78,112 @@ public class XMLScriptBuilder extends BaseBuilder {
     MixedSqlNode rootSqlNode = parseDynamicTags(context);
     SqlSource sqlSource;
     if (isDynamic) {// 动态Sql源
-      sqlSource = new DynamicSqlSource(configuration, rootSqlNode);
+      SqlNode foldedSqlNode = fold(rootSqlNode);
+      if (isStaticWithoutContextBindings(foldedSqlNode)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Folded the dynamic elements of statement '" + context.getStringAttribute("id", context.getName()) + "' into static SQL.");
+        }
+        sqlSource = new RawSqlSource(configuration, foldedSqlNode, parameterType);
+      } else {
+        sqlSource = new DynamicSqlSource(configuration, foldedSqlNode);
+      }
     } else {// 静态Sql源， 它会在这里解析
       sqlSource = new RawSqlSource(configuration, rootSqlNode, parameterType);
     }
     return sqlSource;
   }
 
+  /**
+   * Replaces the elements whose SQL does not depend on the parameter: an if or when with a literal test is
+   * replaced by its contents or removed, and a trim, where or set around static text is replaced by its result.
+   * Returns null when nothing is left of the node.
+   */
+  private SqlNode fold(SqlNode node) {
+    Class<?> type = node.getClass();
+    if (type == MixedSqlNode.class) {
+      List<SqlNode> contents = new ArrayList<>();
+      for (SqlNode child : ((MixedSqlNode) node).getContents()) {
+        SqlNode folded = fold(child);
+        if (folded != null && folded.getClass() == MixedSqlNode.class) {
+          contents.addAll(((MixedSqlNode) folded).getContents());
+        } else if (folded != null) {
+          contents.add(folded);
+        }
+      }
+      return new MixedSqlNode(contents);
+    } else if (type == IfSqlNode.class) {
+      IfSqlNode ifSqlNode = (IfSqlNode) node;
+      Boolean test = literalTest(ifSqlNode.getTest());
+      if (test == null) {
+        SqlNode contents = fold(ifSqlNode.getContents());
+        return new IfSqlNode(contents == null ? new MixedSqlNode(new ArrayList<>()) : contents, ifSqlNode.getTest());
+      }
+      return test ? fold(ifSqlNode.getContents()) : null;
+    } else if (type == ChooseSqlNode.class) {
+      return foldChoose((ChooseSqlNode) node);
+    } else if (type == TrimSqlNode.class || type == WhereSqlNode.class || type == SetSqlNode.class) {
+      SqlNode contents = fold(((TrimSqlNode) node).getContents());
+      if (contents == null || isStatic(contents)) {
+        DynamicContext context = new DynamicContext(configuration, null);
+        node.apply(context);
+        return new StaticTextSqlNode(context.getSql());
+      }
+    }
+    return node;
+  }
+
+  private SqlNode foldChoose(ChooseSqlNode chooseSqlNode) {
+    List<SqlNode> ifSqlNodes = new ArrayList<>();
+    SqlNode defaultSqlNode = chooseSqlNode.getDefaultSqlNode();
+    for (SqlNode ifSqlNode : chooseSqlNode.getIfSqlNodes()) {
+      if (ifSqlNode.getClass() != IfSqlNode.class) {
+        return chooseSqlNode;
+      }
+      Boolean test = literalTest(((IfSqlNode) ifSqlNode).getTest());
+      if (test == null) {
+        ifSqlNodes.add(fold(ifSqlNode));
+      } else if (test) {
+        // the branches after it are never taken
+        defaultSqlNode = ((IfSqlNode) ifSqlNode).getContents();
+        break;
+      }
+    }
+    defaultSqlNode = defaultSqlNode == null ? null : fold(defaultSqlNode);
+    if (ifSqlNodes.isEmpty()) {
+      return defaultSqlNode;
+    }
+    return new ChooseSqlNode(ifSqlNodes, defaultSqlNode);
+  }
+
+  private static Boolean literalTest(String test) {
+    String trimmed = test == null ? null : test.trim();
+    if ("true".equals(trimmed)) {
+      return Boolean.TRUE;
+    } else if ("false".equals(trimmed)) {
+      return Boolean.FALSE;
+    }
+    return null;
+  }
+
+  private static boolean isStatic(SqlNode node) {
+    if (node.getClass() == StaticTextSqlNode.class) {
+      return true;
+    }
+    return node.getClass() == MixedSqlNode.class
+        && ((MixedSqlNode) node).getContents().stream().allMatch(XMLScriptBuilder::isStatic);
+  }
+
+  // a dynamic statement can refer to the bindings of the DynamicContext, which a static one does not have
+  private boolean isStaticWithoutContextBindings(SqlNode node) {
+    if (node == null || !isStatic(node)) {
+      return false;
+    }
+    DynamicContext context = new DynamicContext(configuration, null);
+    node.apply(context);
+    String sql = context.getSql();
+    return !sql.contains(DynamicContext.PARAMETER_OBJECT_KEY) && !sql.contains(DynamicContext.DATABASE_ID_KEY);
+  }
+
   // 解析${} 和 动态节点
   protected MixedSqlNode parseDynamicTags(XNode node) {
     List<SqlNode> contents = new ArrayList<>();
@@ -186,7 +289,8 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
-      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+      boolean inList = nodeToHandle.getBooleanAttribute("inList", false);
+      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator, inList);
       targetContents.add(forEachSqlNode);
     }
   }
@@ -0,0 +1,373 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Holds the rows of a result set by column instead of creating an object per row.
+ * <p>
+ * Select it with {@code resultType="columnar"} or by returning it from a mapper method. Integer columns are kept
+ * in {@code int[]} or {@code long[]} arrays, floating point columns in {@code double[]} arrays and character
+ * columns are dictionary encoded, so each distinct string is held once. Other columns hold the objects returned by
+ * {@link ResultSet#getObject(int)}. The statement returns a single ColumnarResult per result set.
+ * <p>
+ * It is serializable, so it can be kept in a read-write cache, as long as the values of its object columns are.
+ */
+public class ColumnarResult implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final List<String> columnNames;
+  private final Column[] columns;
+  private final Map<String, Column> columnsByName = new HashMap<>();
+  private int size;
+
+  public ColumnarResult(List<String> columnNames, List<JdbcType> jdbcTypes) {
+    this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+    this.columns = new Column[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = newColumn(columnNames.get(i), jdbcTypes.get(i));
+      columnsByName.putIfAbsent(columnNames.get(i).toUpperCase(Locale.ENGLISH), columns[i]);
+    }
+  }
+
+  private static Column newColumn(String name, JdbcType jdbcType) {
+    if (jdbcType == null) {
+      return new ObjectColumn(name, null);
+    }
+    switch (jdbcType) {
+      case TINYINT:
+      case SMALLINT:
+      case INTEGER:
+        return new IntColumn(name, jdbcType);
+      case BIGINT:
+        return new LongColumn(name, jdbcType);
+      case FLOAT:
+      case REAL:
+      case DOUBLE:
+        return new DoubleColumn(name, jdbcType);
+      case CHAR:
+      case VARCHAR:
+      case LONGVARCHAR:
+      case NCHAR:
+      case NVARCHAR:
+        return new StringColumn(name, jdbcType);
+      default:
+        return new ObjectColumn(name, jdbcType);
+    }
+  }
+
+  /**
+   * Appends the current row of the result set.
+   */
+  public void addRow(ResultSet rs) throws SQLException {
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].read(rs, i + 1, size);
+    }
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * Returns the column with the given label, ignoring case, or {@code null} if there is none.
+   */
+  public Column getColumn(String columnName) {
+    return columnsByName.get(columnName.toUpperCase(Locale.ENGLISH));
+  }
+
+  public Column getColumn(int columnIndex) {
+    return columns[columnIndex];
+  }
+
+  public Object getValue(int row, String columnName) {
+    return getColumn(columnName).getValue(row);
+  }
+
+  public abstract static class Column implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final JdbcType jdbcType;
+    private final BitSet nulls = new BitSet();
+    protected int size;
+
+    protected Column(String name, JdbcType jdbcType) {
+      this.name = name;
+      this.jdbcType = jdbcType;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public JdbcType getJdbcType() {
+      return jdbcType;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public boolean isNull(int row) {
+      checkRow(row);
+      return nulls.get(row);
+    }
+
+    /**
+     * Returns the value of the row boxed, or {@code null} for a SQL NULL.
+     */
+    public Object getValue(int row) {
+      return isNull(row) ? null : getNonNullValue(row);
+    }
+
+    protected abstract Object getNonNullValue(int row);
+
+    protected abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+    protected void markNull(ResultSet rs, int row) throws SQLException {
+      if (rs.wasNull()) {
+        nulls.set(row);
+      }
+    }
+
+    protected void checkRow(int row) {
+      if (row < 0 || row >= size) {
+        throw new IndexOutOfBoundsException("Row " + row + " of column " + name + " with " + size + " rows");
+      }
+    }
+
+    protected static int grow(int capacity) {
+      return Math.max(INITIAL_CAPACITY, capacity * 2);
+    }
+  }
+
+  public static class IntColumn extends Column {
+
+    private static final long serialVersionUID = 1L;
+
+    private int[] values = new int[0];
+
+    public IntColumn(String name, JdbcType jdbcType) {
+      super(name, jdbcType);
+    }
+
+    /**
+     * Returns the value of the row, {@code 0} for a SQL NULL.
+     */
+    public int getInt(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    public int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    protected Object getNonNullValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    protected void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grow(values.length));
+      }
+      values[row] = rs.getInt(columnIndex);
+      markNull(rs, row);
+      size = row + 1;
+    }
+  }
+
+  public static class LongColumn extends Column {
+
+    private static final long serialVersionUID = 1L;
+
+    private long[] values = new long[0];
+
+    public LongColumn(String name, JdbcType jdbcType) {
+      super(name, jdbcType);
+    }
+
+    /**
+     * Returns the value of the row, {@code 0} for a SQL NULL.
+     */
+    public long getLong(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    public long[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    protected Object getNonNullValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    protected void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grow(values.length));
+      }
+      values[row] = rs.getLong(columnIndex);
+      markNull(rs, row);
+      size = row + 1;
+    }
+  }
+
+  public static class DoubleColumn extends Column {
+
+    private static final long serialVersionUID = 1L;
+
+    private double[] values = new double[0];
+
+    public DoubleColumn(String name, JdbcType jdbcType) {
+      super(name, jdbcType);
+    }
+
+    /**
+     * Returns the value of the row, {@code 0} for a SQL NULL.
+     */
+    public double getDouble(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    public double[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    protected Object getNonNullValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    protected void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grow(values.length));
+      }
+      values[row] = rs.getDouble(columnIndex);
+      markNull(rs, row);
+      size = row + 1;
+    }
+  }
+
+  public static class StringColumn extends Column {
+
+    private static final long serialVersionUID = 1L;
+
+    private int[] codes = new int[0];
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codesByValue = new HashMap<>();
+
+    public StringColumn(String name, JdbcType jdbcType) {
+      super(name, jdbcType);
+    }
+
+    public String getString(int row) {
+      int code = getCode(row);
+      return code < 0 ? null : dictionary.get(code);
+    }
+
+    /**
+     * Returns the index of the value of the row in the dictionary, {@code -1} for a SQL NULL.
+     */
+    public int getCode(int row) {
+      checkRow(row);
+      return codes[row];
+    }
+
+    public List<String> getDictionary() {
+      return Collections.unmodifiableList(dictionary);
+    }
+
+    @Override
+    protected Object getNonNullValue(int row) {
+      return dictionary.get(codes[row]);
+    }
+
+    @Override
+    protected void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (row == codes.length) {
+        codes = Arrays.copyOf(codes, grow(codes.length));
+      }
+      String value = rs.getString(columnIndex);
+      if (value == null) {
+        codes[row] = -1;
+        markNull(rs, row);
+      } else {
+        codes[row] = codesByValue.computeIfAbsent(value, k -> {
+          dictionary.add(k);
+          return dictionary.size() - 1;
+        });
+      }
+      size = row + 1;
+    }
+  }
+
+  public static class ObjectColumn extends Column {
+
+    private static final long serialVersionUID = 1L;
+
+    private Object[] values = new Object[0];
+
+    public ObjectColumn(String name, JdbcType jdbcType) {
+      super(name, jdbcType);
+    }
+
+    @Override
+    protected Object getNonNullValue(int row) {
+      return values[row];
+    }
+
+    @Override
+    protected void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, grow(values.length));
+      }
+      values[row] = rs.getObject(columnIndex);
+      markNull(rs, row);
+      size = row + 1;
+    }
+  }
+
+}
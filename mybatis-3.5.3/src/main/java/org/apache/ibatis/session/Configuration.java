@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -47,6 +48,12 @@ import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.executor.dialect.DerbyDialect;
+import org.apache.ibatis.executor.dialect.Dialect;
+import org.apache.ibatis.executor.dialect.HsqldbDialect;
+import org.apache.ibatis.executor.dialect.MySqlDialect;
+import org.apache.ibatis.executor.dialect.OracleDialect;
+import org.apache.ibatis.executor.dialect.PostgreSqlDialect;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
@@ -54,6 +61,7 @@ import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.RowMapperGenerator;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -86,6 +94,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompilingLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -113,6 +122,8 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean rowMapperGenerationEnabled;
+  protected boolean resultOrderedDetectionEnabled;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -125,6 +136,7 @@ public class Configuration {
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
+  protected RowMappingParallelism rowMappingParallelism = RowMappingParallelism.NONE;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
 
   protected Properties variables = new Properties();
@@ -134,6 +146,7 @@ public class Configuration {
 
   protected boolean lazyLoadingEnabled = false;
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
+  protected Dialect dialect;
 
   protected String databaseId;
   /**
@@ -149,6 +162,8 @@ public class Configuration {
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
+  protected final RowMapperGenerator rowMapperGenerator = new RowMapperGenerator();
+  protected final Map<String, Map<String, String>> parameterExpressionCache = new ConcurrentHashMap<>();
 
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
@@ -196,6 +211,7 @@ public class Configuration {
 
     typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
     typeAliasRegistry.registerAlias("RAW", RawLanguageDriver.class);
+    typeAliasRegistry.registerAlias("COMPILED", CompilingLanguageDriver.class);
 
     typeAliasRegistry.registerAlias("SLF4J", Slf4jImpl.class);
     typeAliasRegistry.registerAlias("COMMONS_LOGGING", JakartaCommonsLoggingImpl.class);
@@ -208,6 +224,12 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("HSQLDB", HsqldbDialect.class);
+    typeAliasRegistry.registerAlias("DERBY", DerbyDialect.class);
+    typeAliasRegistry.registerAlias("POSTGRESQL", PostgreSqlDialect.class);
+    typeAliasRegistry.registerAlias("MYSQL", MySqlDialect.class);
+    typeAliasRegistry.registerAlias("ORACLE", OracleDialect.class);
+
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     languageRegistry.register(RawLanguageDriver.class);
   }
@@ -266,6 +288,34 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  public boolean isRowMapperGenerationEnabled() {
+    return rowMapperGenerationEnabled;
+  }
+
+  public void setRowMapperGenerationEnabled(boolean rowMapperGenerationEnabled) {
+    this.rowMapperGenerationEnabled = rowMapperGenerationEnabled;
+  }
+
+  public boolean isResultOrderedDetectionEnabled() {
+    return resultOrderedDetectionEnabled;
+  }
+
+  public void setResultOrderedDetectionEnabled(boolean resultOrderedDetectionEnabled) {
+    this.resultOrderedDetectionEnabled = resultOrderedDetectionEnabled;
+  }
+
+  public RowMapperGenerator getRowMapperGenerator() {
+    return rowMapperGenerator;
+  }
+
+  /**
+   * Returns the parsed contents of #{} tokens by their text, which are parsed again each time the SQL of a dynamic
+   * statement is built.
+   */
+  public Map<String, Map<String, String>> getParameterExpressionCache() {
+    return parameterExpressionCache;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -330,6 +380,14 @@ public class Configuration {
     this.autoMappingBehavior = autoMappingBehavior;
   }
 
+  public RowMappingParallelism getRowMappingParallelism() {
+    return rowMappingParallelism;
+  }
+
+  public void setRowMappingParallelism(RowMappingParallelism rowMappingParallelism) {
+    this.rowMappingParallelism = rowMappingParallelism;
+  }
+
   /**
    * @since 3.4.0
    */
@@ -363,6 +421,18 @@ public class Configuration {
     this.proxyFactory = proxyFactory;
   }
 
+  public Dialect getDialect() {
+    return dialect;
+  }
+
+  /**
+   * Sets the dialect used to push the offset and limit of {@link RowBounds} down to the database.
+   * When no dialect is set the rows before the offset are skipped on the client.
+   */
+  public void setDialect(Dialect dialect) {
+    this.dialect = dialect;
+  }
+
   public boolean isAggressiveLazyLoading() {
     return aggressiveLazyLoading;
   }
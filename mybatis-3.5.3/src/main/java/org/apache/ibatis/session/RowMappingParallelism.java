@@ -0,0 +1,38 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Specifies if the rows of simple result maps are mapped to objects in parallel.
+ */
+public enum RowMappingParallelism {
+
+  /**
+   * Maps each row on the thread reading the result set.
+   */
+  NONE,
+
+  /**
+   * Reads the rows in batches that are mapped in a fork-join pool, and passes the results to the ResultHandler in
+   * the order of the rows.
+   */
+  ORDERED,
+
+  /**
+   * Like {@link #ORDERED}, but passes the results of each batch as soon as it is mapped.
+   */
+  UNORDERED
+}
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 import org.apache.ibatis.executor.BatchResult;
 
 /**
@@ -143,6 +144,45 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A CursorPublisher offers the same results as a Cursor, except items are fetched as subscribers request them.
+   * The items must be requested on the current thread while this session is open, see
+   * {@link CursorPublisher#of(SqlSessionFactory, String, Object)} to request them on other threads.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @return CursorPublisher of mapped objects
+   */
+  default <T> CursorPublisher<T> selectPublisher(String statement) {
+    return CursorPublisher.onCurrentThread(() -> selectCursor(statement));
+  }
+
+  /**
+   * A CursorPublisher offers the same results as a Cursor, except items are fetched as subscribers request them.
+   * The items must be requested on the current thread while this session is open, see
+   * {@link CursorPublisher#of(SqlSessionFactory, String, Object)} to request them on other threads.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return CursorPublisher of mapped objects
+   */
+  default <T> CursorPublisher<T> selectPublisher(String statement, Object parameter) {
+    return CursorPublisher.onCurrentThread(() -> selectCursor(statement, parameter));
+  }
+
+  /**
+   * A CursorPublisher offers the same results as a Cursor, except items are fetched as subscribers request them.
+   * The items must be requested on the current thread while this session is open, see
+   * {@link CursorPublisher#of(SqlSessionFactory, String, Object)} to request them on other threads.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return CursorPublisher of mapped objects
+   */
+  default <T> CursorPublisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    return CursorPublisher.onCurrentThread(() -> selectCursor(statement, parameter, rowBounds));
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
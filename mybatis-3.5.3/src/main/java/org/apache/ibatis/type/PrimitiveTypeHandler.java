@@ -0,0 +1,66 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Optional interfaces of the type handlers of primitive values, read without boxing.
+ * <p>
+ * Like the JDBC getters they delegate to, the read methods return {@code 0} or {@literal false} for a SQL NULL,
+ * so callers must check {@code wasNull()} on the ResultSet afterwards. Generated row mappers use them to call
+ * setters with primitive parameters, as long as the handler reads the column the same way as its
+ * {@code getNullableResult} method does.
+ */
+public interface PrimitiveTypeHandler {
+
+  interface OfInt extends PrimitiveTypeHandler {
+
+    int getInt(ResultSet rs, String columnName) throws SQLException;
+  }
+
+  interface OfLong extends PrimitiveTypeHandler {
+
+    long getLong(ResultSet rs, String columnName) throws SQLException;
+  }
+
+  interface OfDouble extends PrimitiveTypeHandler {
+
+    double getDouble(ResultSet rs, String columnName) throws SQLException;
+  }
+
+  interface OfFloat extends PrimitiveTypeHandler {
+
+    float getFloat(ResultSet rs, String columnName) throws SQLException;
+  }
+
+  interface OfShort extends PrimitiveTypeHandler {
+
+    short getShort(ResultSet rs, String columnName) throws SQLException;
+  }
+
+  interface OfByte extends PrimitiveTypeHandler {
+
+    byte getByte(ResultSet rs, String columnName) throws SQLException;
+  }
+
+  interface OfBoolean extends PrimitiveTypeHandler {
+
+    boolean getBoolean(ResultSet rs, String columnName) throws SQLException;
+  }
+
+}
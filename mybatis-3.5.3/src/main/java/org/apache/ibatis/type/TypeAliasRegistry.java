@@ -31,6 +31,7 @@ import java.util.Set;
 
 import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ColumnarResult;
 
 /**
  * @author Clinton Begin
@@ -104,6 +105,7 @@ public class TypeAliasRegistry {
     registerAlias("iterator", Iterator.class);
 
     registerAlias("ResultSet", ResultSet.class);
+    registerAlias("columnar", ColumnarResult.class);
   }
 
   @SuppressWarnings("unchecked")
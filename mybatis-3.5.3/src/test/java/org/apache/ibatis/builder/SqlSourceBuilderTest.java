@@ -0,0 +1,52 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class SqlSourceBuilderTest {
+
+  @Test
+  void shouldCacheParameterExpressionsPerConfiguration() {
+    Configuration configuration = new Configuration();
+    BoundSql boundSql = new SqlSourceBuilder(configuration)
+        .parse("select * from users where id = #{id,jdbcType=INTEGER}", HashMap.class, new HashMap<>())
+        .getBoundSql(new HashMap<>());
+    assertEquals("select * from users where id = ?", boundSql.getSql());
+    assertTrue(configuration.getParameterExpressionCache().containsKey("id,jdbcType=INTEGER"));
+    assertTrue(new Configuration().getParameterExpressionCache().isEmpty());
+  }
+
+  @Test
+  void shouldNotCacheParameterExpressionsOfForEachItems() {
+    Configuration configuration = new Configuration();
+    BoundSql boundSql = new SqlSourceBuilder(configuration)
+        .parse("select * from users where id in (#{__frch_id_0}, #{__frch_id_1,jdbcType=INTEGER})", HashMap.class, new HashMap<>())
+        .getBoundSql(new HashMap<>());
+    assertEquals(2, boundSql.getParameterMappings().size());
+    assertEquals("__frch_id_1", boundSql.getParameterMappings().get(1).getProperty());
+    assertFalse(configuration.getParameterExpressionCache().keySet().stream().anyMatch(k -> k.startsWith("__frch_")));
+  }
+
+}
@@ -16,12 +16,15 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +40,7 @@ import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
+import org.apache.ibatis.scripting.xmltags.TrimSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -376,6 +380,68 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldTrimNestedContentsIgnoringCase() throws Exception {
+    final String expected = "SELECT * FROM BLOG WHERE  ( TAG = ?or TAG = ?)AND ID = ?";
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new ForEachSqlNode(new Configuration(), mixedContents(
+                new TrimSqlNode(new Configuration(), mixedContents(new TextSqlNode(" and TAG = #{item}")), null, "AND ", null, null)),
+                "tags", "index", "item", "and (", ")", "or"),
+            new TrimSqlNode(new Configuration(), mixedContents(new TextSqlNode("ID = #{id}, ")), "AND", null, null, ","))));
+    BoundSql boundSql = source.getBoundSql(parameter(1, Arrays.asList("a", "b")));
+    assertEquals(expected, boundSql.getSql());
+    assertEquals("__frch_item_1", boundSql.getParameterMappings().get(1).getProperty());
+    assertEquals("id", boundSql.getParameterMappings().get(2).getProperty());
+  }
+
+  @Test
+  void shouldReuseTheSqlOfTheSameShape() {
+    final DynamicSqlSource source = new DynamicSqlSource(new Configuration(), mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new IfSqlNode(mixedContents(new TextSqlNode("AND ID = #{id}")), "id != null"),
+            new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "tags", "index", "item", "AND TAG IN (", ")", ",")))));
+    BoundSql first = source.getBoundSql(parameter(1, Arrays.asList("a", "b")));
+    BoundSql second = source.getBoundSql(parameter(2, Arrays.asList("c", "d")));
+    assertEquals("SELECT * FROM BLOG WHERE  ID = ?AND TAG IN (?,?)", second.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(2, ((Map<?, ?>) second.getParameterObject()).get("id"));
+    assertEquals("d", second.getAdditionalParameter("__frch_item_1"));
+
+    BoundSql otherShape = source.getBoundSql(parameter(null, Arrays.asList("a", "b", "c")));
+    assertEquals("SELECT * FROM BLOG WHERE  TAG IN (?,?,?)", otherShape.getSql());
+    assertEquals("__frch_item_2", otherShape.getParameterMappings().get(2).getProperty());
+  }
+
+  @Test
+  void shouldNotReuseTheSqlOfItemsOfAnotherType() {
+    final DynamicSqlSource source = new DynamicSqlSource(new Configuration(), mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID IN"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    BoundSql integers = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2)));
+    BoundSql strings = source.getBoundSql(Collections.singletonMap("list", Arrays.asList("1", "2")));
+    assertNotSame(integers.getParameterMappings(), strings.getParameterMappings());
+    assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  void shouldNotReuseTheSqlOfOtherSubstitutedValues() {
+    final DynamicSqlSource source = new DynamicSqlSource(new Configuration(), mixedContents(new TextSqlNode("SELECT * FROM BLOG ORDER BY ${column}")));
+    assertEquals("SELECT * FROM BLOG ORDER BY id", source.getBoundSql(Collections.singletonMap("column", "id")).getSql());
+    assertEquals("SELECT * FROM BLOG ORDER BY title", source.getBoundSql(Collections.singletonMap("column", "title")).getSql());
+    assertEquals("SELECT * FROM BLOG ORDER BY id", source.getBoundSql(Collections.singletonMap("column", "id")).getSql());
+  }
+
+  private Map<String, Object> parameter(Integer id, List<String> tags) {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", id);
+    parameter.put("tags", tags);
+    return parameter;
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
@@ -0,0 +1,99 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class DialectTest {
+
+  private static final String SQL = "select * from users order by id";
+
+  @Test
+  void shouldUseOffsetFetchClauses() {
+    for (Dialect dialect : new Dialect[] { new HsqldbDialect(), new DerbyDialect(), new OracleDialect() }) {
+      assertEquals(SQL + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", dialect.getLimitSql(SQL, true, true));
+      assertEquals(SQL + " OFFSET ? ROWS", dialect.getLimitSql(SQL, true, false));
+      assertEquals(SQL + " FETCH NEXT ? ROWS ONLY", dialect.getLimitSql(SQL, false, true));
+    }
+  }
+
+  @Test
+  void shouldUsePostgreSqlOffsetLimit() {
+    Dialect dialect = new PostgreSqlDialect();
+    assertEquals(SQL + " OFFSET ? LIMIT ?", dialect.getLimitSql(SQL, true, true));
+    assertEquals(SQL + " OFFSET ?", dialect.getLimitSql(SQL, true, false));
+    assertEquals(SQL + " LIMIT ?", dialect.getLimitSql(SQL, false, true));
+  }
+
+  @Test
+  void shouldUseMySqlLimit() {
+    Dialect dialect = new MySqlDialect();
+    assertEquals(SQL + " LIMIT ?, ?", dialect.getLimitSql(SQL, true, true));
+    assertEquals(SQL + " LIMIT ?, 18446744073709551615", dialect.getLimitSql(SQL, true, false));
+    assertEquals(SQL + " LIMIT ?", dialect.getLimitSql(SQL, false, true));
+  }
+
+  @Test
+  void shouldOnlyPaginateQueriesThatCanBeExtended() {
+    assertEquals(SQL, Pagination.toPageableSql(SQL + " ;\n"));
+    assertEquals(SQL, Pagination.toPageableSql(SQL + " -- newest first\n"));
+    assertEquals(SQL, Pagination.toPageableSql(SQL + " /* page */"));
+    assertEquals("select * from users where name = 'for -- ; limit' order by id",
+        Pagination.toPageableSql("select * from users where name = 'for -- ; limit' order by id;"));
+    assertEquals("select * from (select * from users limit 10) u", Pagination.toPageableSql("select * from (select * from users limit 10) u"));
+    assertNull(Pagination.toPageableSql(SQL + " limit 10"));
+    assertNull(Pagination.toPageableSql(SQL + " OFFSET 5 ROWS FETCH FIRST 5 ROWS ONLY"));
+    assertNull(Pagination.toPageableSql("select * from users where id = 1 for update"));
+    assertNull(Pagination.toPageableSql("select * from users lock in share mode"));
+    assertNull(Pagination.toPageableSql(SQL + "; select * from pets"));
+  }
+
+  @Test
+  void shouldNotModifyTheAdditionalParametersOfTheOriginal() {
+    Configuration configuration = new Configuration();
+    MappedStatement ms = new MappedStatement.Builder(configuration, "users",
+        new StaticSqlSource(configuration, SQL), SqlCommandType.SELECT).build();
+    Map<String, Object> bindings = new HashMap<>();
+    bindings.put("name", "User1");
+    BoundSql boundSql = new BoundSql(configuration, SQL, Collections.emptyList(), null, bindings);
+
+    BoundSql pagedBoundSql = Pagination.paginate(new HsqldbDialect(), ms, boundSql, new RowBounds(2, 3));
+    assertEquals(SQL + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", pagedBoundSql.getSql());
+    assertEquals(2, pagedBoundSql.getAdditionalParameter(Pagination.OFFSET_PARAMETER));
+    assertEquals(3, pagedBoundSql.getAdditionalParameter(Pagination.LIMIT_PARAMETER));
+    assertEquals("User1", pagedBoundSql.getAdditionalParameter("name"));
+    assertTrue(pagedBoundSql.hasAdditionalParameter("name"));
+    assertEquals(Collections.singleton("name"), bindings.keySet());
+
+    assertNull(Pagination.paginate(new HsqldbDialect(), ms, new BoundSql(configuration, SQL + " for update", Collections.emptyList(), null),
+        new RowBounds(2, 3)));
+  }
+
+}
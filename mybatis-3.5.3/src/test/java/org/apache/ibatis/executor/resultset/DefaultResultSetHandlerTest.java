@@ -16,6 +16,8 @@
 package org.apache.ibatis.executor.resultset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -101,6 +103,34 @@ class DefaultResultSetHandlerTest {
     assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
   }
 
+  @Test
+  void shouldReuseResultSetLayoutWhileColumnsDoNotChange() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, false, true, false, true, false);
+    when(rs.getInt("CoLuMn1")).thenReturn(100);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1", "CoLuMn1", "column1", "column1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    new DefaultResultSetHandler(null, ms, null, null, null, RowBounds.DEFAULT).handleResultSets(stmt);
+    final ResultSetLayout layout = ms.getResultSetLayout(0);
+    final List<Object> results = new DefaultResultSetHandler(null, ms, null, null, null, RowBounds.DEFAULT).handleResultSets(stmt);
+    assertSame(layout, ms.getResultSetLayout(0));
+    assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
+
+    new DefaultResultSetHandler(null, ms, null, null, null, RowBounds.DEFAULT).handleResultSets(stmt);
+    assertNotSame(layout, ms.getResultSetLayout(0));
+    assertEquals(Collections.singletonList("column1"), ms.getResultSetLayout(0).getColumnNames());
+  }
+
   @Test
   void shouldThrowExceptionWithColumnName() throws Exception {
     final MappedStatement ms = getMappedStatement();
@@ -0,0 +1,78 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class ResultOrderDetectorTest {
+
+  @Test
+  void shouldParseOutermostOrderBy() {
+    assertEquals(Arrays.asList("a.id", "name"), ResultOrderDetector.parseOrderBy(
+        "select * from (select * from t order by x) a where a.s = 'order by y' order by a.ID desc, \"NAME\" nulls last"));
+    assertEquals(Collections.singletonList("id"), ResultOrderDetector.parseOrderBy("select * from t order by id offset ? rows fetch next ? rows only"));
+    assertEquals(Arrays.asList("id", ""), ResultOrderDetector.parseOrderBy("select * from t order by id, lower(name) limit ?"));
+    assertEquals(Collections.emptyList(), ResultOrderDetector.parseOrderBy("select * from t"));
+  }
+
+  @Test
+  void shouldDetectOrderingByIdColumns() {
+    Configuration configuration = new Configuration();
+    ResultMapping id = new ResultMapping.Builder(configuration, "id", "ID", Integer.class)
+        .flags(Collections.singletonList(ResultFlag.ID)).build();
+    ResultMapping name = new ResultMapping.Builder(configuration, "name", "name", String.class).build();
+    ResultMap resultMap = new ResultMap.Builder(configuration, "map", Object.class, Arrays.asList(id, name)).build();
+    ResultMap withoutId = new ResultMap.Builder(configuration, "map", Object.class, Collections.singletonList(name)).build();
+
+    assertTrue(ResultOrderDetector.isOrderedById("select * from t order by t.id, name", resultMap));
+    assertFalse(ResultOrderDetector.isOrderedById("select * from t order by name, id", resultMap));
+    assertFalse(ResultOrderDetector.isOrderedById("select * from t", resultMap));
+    assertFalse(ResultOrderDetector.isOrderedById("select * from t order by name", withoutId));
+  }
+
+  @Test
+  void shouldResolveOrderByColumnsThroughTheSelectList() {
+    Configuration configuration = new Configuration();
+    ResultMapping id = new ResultMapping.Builder(configuration, "id", "id", Integer.class)
+        .flags(Collections.singletonList(ResultFlag.ID)).build();
+    ResultMap resultMap = new ResultMap.Builder(configuration, "map", Object.class, Collections.singletonList(id)).build();
+
+    assertFalse(ResultOrderDetector.isOrderedById(
+        "select u.id as id, o.id as order_id from users u join orders o on o.user_id = u.id order by o.id", resultMap));
+    assertTrue(ResultOrderDetector.isOrderedById(
+        "select u.id as id, o.id as order_id from users u join orders o on o.user_id = u.id order by u.id, o.id", resultMap));
+    assertTrue(ResultOrderDetector.isOrderedById(
+        "select distinct u.id, o.id order_id from users u join orders o on o.user_id = u.id order by id", resultMap));
+    assertTrue(ResultOrderDetector.isOrderedById(
+        "select u.*, o.id as order_id from users u join orders o on o.user_id = u.id order by u.id", resultMap));
+    assertTrue(ResultOrderDetector.isOrderedById("select * from users u where u.name = ? order by u.id", resultMap));
+    assertFalse(ResultOrderDetector.isOrderedById("select * from users u join orders o on o.user_id = u.id order by o.id", resultMap));
+    assertFalse(ResultOrderDetector.isOrderedById("select u.*, o.* from users u join orders o on o.user_id = u.id order by u.id", resultMap));
+    assertFalse(ResultOrderDetector.isOrderedById("select u.id as user_id, o.id from users u, orders o order by u.id", resultMap));
+  }
+
+}
@@ -0,0 +1,53 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class RowKeyTest {
+
+  @Test
+  void shouldCompareSingleIds() {
+    RowKey parent = RowKey.of("blog", null, 1, null);
+    assertEquals(parent, RowKey.of("blog", null, 1, null));
+    assertEquals(parent.hashCode(), RowKey.of("blog", null, 1, null).hashCode());
+    assertNotEquals(parent, RowKey.of("blog", null, 2, null));
+    assertNotEquals(parent, RowKey.of("author", null, 1, null));
+    assertNotEquals(parent, RowKey.of("blog", "B_", 1, null));
+    assertEquals(RowKey.of("blog", null, "a", null), RowKey.of("blog", null, "a", null));
+    assertEquals(RowKey.of("blog", null, new byte[] { 1 }, null), RowKey.of("blog", null, new byte[] { 1 }, null));
+  }
+
+  @Test
+  void shouldCompareParents() {
+    RowKey post = RowKey.of("post", null, 10L, RowKey.of("blog", null, 1, null));
+    assertEquals(post, RowKey.of("post", null, 10L, RowKey.of("blog", null, 1, null)));
+    assertNotEquals(post, RowKey.of("post", null, 10L, RowKey.of("blog", null, 2, null)));
+    assertNotEquals(post, RowKey.of("post", null, 10L, null));
+  }
+
+  @Test
+  void shouldCompareValuesByPosition() {
+    RowKey key = RowKey.of("map", null, new Object[] { null, 1 }, null);
+    assertEquals(key, RowKey.of("map", null, new Object[] { null, 1 }, null));
+    assertNotEquals(key, RowKey.of("map", null, new Object[] { 1, null }, null));
+    assertNotEquals(key, RowKey.of("map", null, new Object[] { null, 1, null }, null));
+  }
+
+}
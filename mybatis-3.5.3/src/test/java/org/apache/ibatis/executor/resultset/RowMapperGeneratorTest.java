@@ -0,0 +1,160 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.Test;
+
+class RowMapperGeneratorTest {
+
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  private final RowMapperGenerator generator = new RowMapperGenerator();
+
+  @Test
+  void shouldGenerateRowMapperCallingSetters() throws Exception {
+    RowMapper rowMapper = generator.newRowMapper(reflectorFactory, Bean.class, Arrays.asList("ID", "NAME", "COUNT"),
+        Arrays.asList("id", "name", "count"), Arrays.asList(new IntegerTypeHandler(), new StringTypeHandler(), new IntegerTypeHandler()), false);
+    assertNotNull(rowMapper);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt("ID")).thenReturn(3);
+    when(rs.getString("NAME")).thenReturn("bean");
+    when(rs.getInt("COUNT")).thenReturn(7);
+    Bean bean = new Bean();
+    assertTrue(rowMapper.map(bean, rs));
+    assertEquals(Integer.valueOf(3), bean.getId());
+    assertEquals("bean", bean.getName());
+    assertEquals(7, bean.getCount());
+  }
+
+  @Test
+  void shouldReadPrimitivePropertiesWithoutBoxing() throws Exception {
+    IntegerTypeHandler typeHandler = new IntegerTypeHandler() {
+      @Override
+      public Integer getNullableResult(ResultSet rs, String columnName) {
+        throw new UnsupportedOperationException("should read an int");
+      }
+
+      @Override
+      public int getInt(ResultSet rs, String columnName) throws SQLException {
+        return rs.getInt(columnName);
+      }
+    };
+    RowMapper rowMapper = generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("COUNT"),
+        Collections.singletonList("count"), Collections.singletonList(typeHandler), false);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt("COUNT")).thenReturn(7, 0);
+    when(rs.wasNull()).thenReturn(false, true);
+    Bean bean = new Bean();
+    assertTrue(rowMapper.map(bean, rs));
+    assertEquals(7, bean.getCount());
+    // a SQL NULL leaves the property untouched
+    assertFalse(rowMapper.map(bean, rs));
+    assertEquals(7, bean.getCount());
+  }
+
+  @Test
+  void shouldReadPrimitivePropertiesWithOverriddenNullableResult() throws Exception {
+    IntegerTypeHandler typeHandler = new IntegerTypeHandler() {
+      @Override
+      public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return rs.getInt(columnName) * 10;
+      }
+    };
+    RowMapper rowMapper = generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("COUNT"),
+        Collections.singletonList("count"), Collections.singletonList(typeHandler), false);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt("COUNT")).thenReturn(7);
+    Bean bean = new Bean();
+    assertTrue(rowMapper.map(bean, rs));
+    assertEquals(70, bean.getCount());
+  }
+
+  @Test
+  void shouldShareGeneratedClassForSameProperties() {
+    RowMapper first = generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("ID"),
+        Collections.singletonList("id"), Collections.singletonList(new IntegerTypeHandler()), false);
+    RowMapper second = generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("BEAN_ID"),
+        Collections.singletonList("id"), Collections.singletonList(new IntegerTypeHandler()), false);
+    assertNotSame(first, second);
+    assertSame(first.getClass(), second.getClass());
+  }
+
+  @Test
+  void shouldNotGenerateWhenTypeHandlerDoesNotMatchSetter() {
+    assertNull(generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("NAME"),
+        Collections.singletonList("name"), Collections.singletonList(new ObjectTypeHandler()), false));
+    assertNull(generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("NAME"),
+        Collections.singletonList("name"), Collections.singletonList(new IntegerTypeHandler()), false));
+  }
+
+  @Test
+  void shouldNotGenerateWithoutPublicSetter() {
+    assertNull(generator.newRowMapper(reflectorFactory, Bean.class, Collections.singletonList("HIDDEN"),
+        Collections.singletonList("hidden"), Collections.singletonList(new StringTypeHandler()), false));
+  }
+
+  public static class Bean {
+    private Integer id;
+    private String name;
+    private int count;
+    private String hidden;
+
+    public Integer getId() {
+      return id;
+    }
+
+    public void setId(Integer id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public String getHidden() {
+      return hidden;
+    }
+  }
+
+}
@@ -22,6 +22,8 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -76,6 +78,28 @@ class GenericTokenParserTest {
     assertEquals("Hello } ${ this is a test.", parser.parse("Hello } ${ this is a test."));
   }
 
+  @Test
+  void shouldSplitTextsAndTokens() {
+    GenericTokenParser parser = new GenericTokenParser("${", "}", null);
+    assertEquals(Collections.singletonList(""), parser.split(null));
+    assertEquals(Collections.singletonList("Hello } ${ this is a test."), parser.split("Hello } ${ this is a test."));
+    assertEquals(Arrays.asList("", "first_name", " ", "last_name", " reporting."), parser.split("${first_name} ${last_name} reporting."));
+    assertEquals(Arrays.asList("${a} ", "var{with}brace", ""), parser.split("\\${a} ${var{with\\}brace}"));
+  }
+
+  @Test
+  void shouldRenderTemplatesAsParsed() {
+    TokenHandler handler = content -> "<" + content + ">";
+    GenericTokenParser parser = new GenericTokenParser("${", "}", handler);
+    for (String text : Arrays.asList(null, "", "}", "${", "${}", "${\\}", "\\${a}", "${var{with\\}brace}",
+        "}${first_name}}${initial}{${last_name}{{}}${}", "Hello } ${ this is a test.", "${a}${b} ${c} reporting.")) {
+      TokenTemplate template = TokenTemplate.compile("${", "}", text);
+      assertEquals(parser.parse(text), template.render(handler));
+    }
+    Assertions.assertFalse(TokenTemplate.compile("${", "}", "Hello } ${ this is a test.").hasTokens());
+    Assertions.assertTrue(TokenTemplate.compile("${", "}", "${a}").hasTokens());
+  }
+
   @Test
   void shallNotInterpolateSkippedVaiables() {
     GenericTokenParser parser = new GenericTokenParser("${", "}", new VariableTokenHandler(new HashMap<>()));
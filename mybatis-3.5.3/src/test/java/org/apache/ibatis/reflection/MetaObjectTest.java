@@ -300,4 +300,35 @@ class MetaObjectTest {
     assertTrue(meta.hasGetter("filterParams[2]"));
   }
 
+  @Test
+  void shouldWalkTheSamePathThroughDifferentTypes() {
+    RichType rich = new RichType();
+    rich.setRichType(new RichType());
+    rich.getRichType().setRichProperty("bean");
+    Map<String, Object> nested = new HashMap<>();
+    nested.put("richProperty", "map");
+    Map<String, Object> map = new HashMap<>();
+    map.put("richType", nested);
+
+    assertEquals("bean", SystemMetaObject.forObject(rich).getValue("richType.richProperty"));
+    assertEquals("map", SystemMetaObject.forObject(map).getValue("richType.richProperty"));
+
+    SystemMetaObject.forObject(map).setValue("richType.richProperty", "map2");
+    SystemMetaObject.forObject(rich).setValue("richType.richProperty", "bean2");
+    assertEquals("map2", nested.get("richProperty"));
+    assertEquals("bean2", rich.getRichType().getRichProperty());
+  }
+
+  @Test
+  void shouldGetAndSetNestedPropertyOfListItem() {
+    RichType rich = new RichType();
+    List<Object> list = new ArrayList<>();
+    list.add(new RichType());
+    rich.setRichList(list);
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    meta.setValue("richList[0].richType.richList[0]", "foo");
+    assertEquals("foo", meta.getValue("richList[0].richType.richList[0]"));
+    assertNull(meta.getValue("richList[0].richType.richType.richProperty"));
+  }
+
 }
@@ -22,6 +22,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -44,6 +46,20 @@ class ReflectorTest {
     Assertions.assertEquals(Long.class, reflector.getGetterType("id"));
   }
 
+  @Test
+  void shouldCachePropertyPathsPerFactory() {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    PropertyPath path = reflectorFactory.findPropertyPath("author.name");
+    assertSame(path, reflectorFactory.findPropertyPath("author.name"));
+    assertNotSame(path, new DefaultReflectorFactory().findPropertyPath("author.name"));
+    // runtime names do not keep the other paths out of the cache
+    for (int i = 0; i < 10000; i++) {
+      reflectorFactory.findPropertyPath("__frch_item_" + i + ".name");
+    }
+    path = reflectorFactory.findPropertyPath("author.name");
+    assertSame(path, reflectorFactory.findPropertyPath("author.name"));
+  }
+
   @Test
   void shouldNotGetClass() {
     ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
@@ -322,4 +338,53 @@ class ReflectorTest {
             "Ambiguous setters defined for property 'bool' in class '" + Bean.class.getName().replace("$", "\\$")
                 + "' with types '(java.lang.Integer|boolean)' and '(java.lang.Integer|boolean)'\\.");
   }
+
+  @Test
+  void shouldGenerateAccessorsForPublicMethods() throws Exception {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(PublicBean.class);
+    PublicBean bean = new PublicBean();
+    Invoker setter = reflector.getSetInvoker("count");
+    Invoker getter = reflector.getGetInvoker("count");
+    assertTrue(setter instanceof LambdaMethodInvoker);
+    assertTrue(getter instanceof LambdaMethodInvoker);
+    setter.invoke(bean, new Object[] { 3 });
+    assertEquals(3, getter.invoke(bean, new Object[0]));
+    assertEquals(int.class, getter.getType());
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "foo" });
+    assertEquals("foo", reflector.getGetInvoker("name").invoke(bean, new Object[0]));
+  }
+
+  @Test
+  void shouldInvokeMethodsOfNonPublicClassesReflectively() throws Exception {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(Section.class);
+    Section section = new Section();
+    Invoker setter = reflector.getSetInvoker("id");
+    assertFalse(setter instanceof LambdaMethodInvoker);
+    setter.invoke(section, new Object[] { 1L });
+    assertEquals(1L, reflector.getGetInvoker("id").invoke(section, new Object[0]));
+  }
+
+  public static class PublicBean {
+    private int count;
+    private String name;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public PublicBean setName(String name) {
+      this.name = name;
+      return this;
+    }
+  }
 }
@@ -94,4 +94,73 @@ class DefaultObjectFactoryTest {
     Set set = defaultObjectFactory.create(Set.class);
     Assertions.assertTrue(set instanceof HashSet, " set should be HashSet");
   }
+
+  @Test
+  void createReusesConstructorForNewInstances() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    TestClass first = defaultObjectFactory.create(TestClass.class,
+        Arrays.asList(String.class, Integer.class), Arrays.asList("foo", 0));
+    TestClass second = defaultObjectFactory.create(TestClass.class,
+        Arrays.asList(String.class, Integer.class), Arrays.asList("bar", 1));
+
+    Assertions.assertNotSame(first, second);
+    Assertions.assertEquals("bar", second.myString);
+    Assertions.assertEquals((Integer) 1, second.myInteger);
+    Assertions.assertNotSame(defaultObjectFactory.create(HashMap.class), defaultObjectFactory.create(HashMap.class));
+  }
+
+  @Test
+  void createClassWithPrivateConstructor() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    Assertions.assertNotNull(defaultObjectFactory.create(PrivateConstructor.class));
+    Assertions.assertNotNull(defaultObjectFactory.create(PrivateConstructor.class));
+  }
+
+  @Test
+  void createClassWithInvalidValuesThrowsProperErrorMsg() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    try {
+      defaultObjectFactory.create(TestClass.class, Arrays.asList(String.class, Integer.class), Arrays.asList("foo", "bar"));
+      Assertions.fail("Should have thrown ReflectionException");
+    } catch (Exception e) {
+      Assertions.assertTrue(e instanceof ReflectionException, "Should be ReflectionException");
+      Assertions.assertTrue(e.getMessage().contains("(String,Integer)"));
+      Assertions.assertTrue(e.getMessage().contains("(foo,bar)"));
+    }
+  }
+
+  @Test
+  void createClassRethrowsErrorsOfTheConstructor() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    Assertions.assertThrows(StackOverflowError.class, () -> defaultObjectFactory.create(FailingConstructor.class));
+    Assertions.assertThrows(StackOverflowError.class, () -> defaultObjectFactory.create(FailingConstructor.class,
+        Collections.singletonList(String.class), Collections.singletonList("foo")));
+  }
+
+  @Test
+  void createClassWrapsExceptionsOfTheConstructor() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    ReflectionException e = Assertions.assertThrows(ReflectionException.class, () -> defaultObjectFactory.create(FailingConstructor.class,
+        Arrays.asList(String.class, Integer.class), Arrays.asList("foo", 0)));
+    Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+  static class FailingConstructor {
+    public FailingConstructor() {
+      throw new StackOverflowError();
+    }
+
+    private FailingConstructor(String value) {
+      throw new StackOverflowError();
+    }
+
+    private FailingConstructor(String value, Integer number) {
+      throw new IllegalStateException();
+    }
+  }
+
+  static class PrivateConstructor {
+    private PrivateConstructor() {
+    }
+  }
 }
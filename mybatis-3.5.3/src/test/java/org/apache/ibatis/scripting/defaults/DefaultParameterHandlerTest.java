@@ -36,6 +36,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -70,6 +72,86 @@ class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  void setParametersReusesBindingPlanForSameParameterType() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", registry.getTypeHandler(Integer.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "name", registry.getTypeHandler(String.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "child.name", registry.getTypeHandler(String.class)).build());
+
+    Item child = new Item(2, "child", null);
+    PreparedStatement ps = mock(PreparedStatement.class);
+    setParameters(mappedStatement, parameterMappings, new Item(1, "first", child), ps);
+    ParameterBindingPlan plan = mappedStatement.getParameterBindingPlan(parameterMappings, child);
+    setParameters(mappedStatement, parameterMappings, new Item(3, "second", child), ps);
+
+    Assertions.assertSame(plan, mappedStatement.getParameterBindingPlan(parameterMappings, child));
+    verify(ps).setInt(1, 1);
+    verify(ps).setString(2, "first");
+    verify(ps).setInt(1, 3);
+    verify(ps).setString(2, "second");
+    verify(ps, times(2)).setString(3, "child");
+  }
+
+  @Test
+  void setParametersKeepsBindingPlansOfEachParameterType() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    List<ParameterMapping> parameterMappings = Collections.singletonList(
+        new ParameterMapping.Builder(config, "name", config.getTypeHandlerRegistry().getTypeHandler(String.class)).build());
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Item item = new Item(1, "bean", null);
+    setParameters(mappedStatement, parameterMappings, item, ps);
+    ParameterBindingPlan plan = mappedStatement.getParameterBindingPlan(parameterMappings, item);
+    HashMap<String, Object> map = new HashMap<>();
+    map.put("name", "map");
+    setParameters(mappedStatement, parameterMappings, map, ps);
+    setParameters(mappedStatement, parameterMappings, "value", ps);
+
+    Assertions.assertNotSame(plan, mappedStatement.getParameterBindingPlan(parameterMappings, map));
+    Assertions.assertNotSame(plan, mappedStatement.getParameterBindingPlan(parameterMappings, "value"));
+    // alternating parameter types do not recompile the plans
+    Assertions.assertSame(plan, mappedStatement.getParameterBindingPlan(parameterMappings, item));
+    Assertions.assertSame(mappedStatement.getParameterBindingPlan(parameterMappings, map),
+        mappedStatement.getParameterBindingPlan(new ArrayList<>(parameterMappings), new HashMap<>()));
+    verify(ps).setString(1, "bean");
+    verify(ps).setString(1, "map");
+    verify(ps).setString(1, "value");
+  }
+
+  private void setParameters(MappedStatement mappedStatement, List<ParameterMapping> parameterMappings, Object parameterObject, PreparedStatement ps) {
+    BoundSql boundSql = new BoundSql(mappedStatement.getConfiguration(), "some select statement", parameterMappings, parameterObject);
+    new DefaultParameterHandler(mappedStatement, parameterObject, boundSql).setParameters(ps);
+  }
+
+  public static class Item {
+    private final Integer id;
+    private final String name;
+    private final Item child;
+
+    Item(Integer id, String name, Item child) {
+      this.id = id;
+      this.name = name;
+      this.child = child;
+    }
+
+    public Integer getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Item getChild() {
+      return child;
+    }
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,129 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import ognl.Ognl;
+import ognl.OgnlException;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldEvaluateLikeOgnlWithMapParameter() throws Exception {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "cbegin");
+    parameter.put("empty", "");
+    parameter.put("nothing", null);
+    parameter.put("id", 5);
+    parameter.put("big", 5L);
+    parameter.put("ratio", 0.5d);
+    parameter.put("flag", Boolean.TRUE);
+    parameter.put("text", "true");
+    parameter.put("ids", Arrays.asList(1, 2, 3));
+    parameter.put("none", Collections.emptyList());
+    parameter.put("author", new Author(1, "jdoe", null, "jdoe@example.com", "N/A", Section.NEWS));
+    parameter.put("nested", Collections.singletonMap("key", "value"));
+    Map<String, Object> root = new DynamicContext(configuration, parameter).getBindings();
+    root.put("item", 3);
+
+    assertSameAsOgnl(root, "name != null and name != ''");
+    assertSameAsOgnl(root, "empty != null and empty != ''");
+    assertSameAsOgnl(root, "nothing == null");
+    assertSameAsOgnl(root, "missing == null || missing.length() > 0");
+    assertSameAsOgnl(root, "id == 5 && big == 5 && id == big && ratio < 1");
+    assertSameAsOgnl(root, "id gt 4 and id lte 5 and not (id eq 4) and id neq 6");
+    assertSameAsOgnl(root, "id >= 5.0 && ratio <= 0.5 && ratio > 0");
+    assertSameAsOgnl(root, "ids != null and ids.size() > 0");
+    assertSameAsOgnl(root, "none.isEmpty() or none.size() == 0");
+    assertSameAsOgnl(root, "!ids.isEmpty()");
+    assertSameAsOgnl(root, "name.length() == 6 && name == \"cbegin\" && name > 'abc'");
+    assertSameAsOgnl(root, "author.username == 'jdoe' and author.password == null");
+    assertSameAsOgnl(root, "author.favouriteSection == author.favouriteSection");
+    assertSameAsOgnl(root, "nested.key == 'value' and nested.other == null");
+    assertSameAsOgnl(root, "flag and text");
+    assertSameAsOgnl(root, "name and id");
+    assertSameAsOgnl(root, "nothing or id");
+    assertSameAsOgnl(root, "!name");
+    assertSameAsOgnl(root, "_parameter != null and _databaseId == null");
+    assertSameAsOgnl(root, "item == 3 and 3 == item");
+    assertSameAsOgnl(root, "id == 5L and 2147483648L > id");
+  }
+
+  @Test
+  void shouldEvaluateLikeOgnlWithBeanParameter() throws Exception {
+    Author author = new Author(0, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    Map<String, Object> root = new DynamicContext(configuration, author).getBindings();
+    assertSameAsOgnl(root, "username == 'cbegin' and password == null");
+    assertSameAsOgnl(root, "id");
+    assertSameAsOgnl(root, "id == 0 or email.length() > 3");
+    assertSameAsOgnl(author, "username != null && bio != ''");
+  }
+
+  @Test
+  void shouldNotCompileOtherExpressions() {
+    assertNull(CompiledExpression.compile("ids.contains(1)"));
+    assertNull(CompiledExpression.compile("id + 1 > 2"));
+    assertNull(CompiledExpression.compile("id in {1, 2}"));
+    assertNull(CompiledExpression.compile("@java.lang.Math@max(1, 2)"));
+    assertNull(CompiledExpression.compile("ids[0] == 1"));
+    assertNull(CompiledExpression.compile("name == 'a\\'b'"));
+    assertNull(CompiledExpression.compile("id == 1.5e3"));
+    assertNull(CompiledExpression.compile("id == 010"));
+    assertNull(CompiledExpression.compile("id == 010L"));
+    assertNull(CompiledExpression.compile("(id == 1"));
+    assertNull(CompiledExpression.compile("id == 1)"));
+    assertNull(CompiledExpression.compile(""));
+  }
+
+  @Test
+  void shouldFallBackToOgnlForOtherValues() throws Exception {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "A");
+    parameter.put("array", new int[] { 1, 2 });
+    Map<String, Object> root = new DynamicContext(configuration, parameter).getBindings();
+    CompiledExpression compiled = CompiledExpression.compile("name == 'A'");
+    assertNotNull(compiled);
+    // a String compared to a Character is converted by OGNL
+    assertThrows(CompiledExpression.Fallback.class, () -> compiled.evaluate(root));
+    assertThrows(CompiledExpression.Fallback.class, () -> CompiledExpression.compile("array.length == 2").evaluate(root));
+    assertThrows(CompiledExpression.Fallback.class, () -> CompiledExpression.compile("missing.name == null").evaluate(root));
+    assertEquals(Boolean.TRUE, OgnlCache.getValue("array.length == 2", root));
+  }
+
+  private void assertSameAsOgnl(Object root, String expression) throws OgnlException {
+    CompiledExpression compiled = CompiledExpression.compile(expression);
+    assertNotNull(compiled, expression);
+    Map context = Ognl.createDefaultContext(root, new OgnlMemberAccess(), new OgnlClassResolver(), null);
+    assertEquals(Ognl.getValue(Ognl.parseExpression(expression), context, root), compiled.evaluate(root), expression);
+  }
+
+}
@@ -0,0 +1,134 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompilingLanguageDriverTest {
+
+  private static final String SCRIPT = "<script>select * from blog"
+      + "<where>"
+      + "<if test=\"id != null\">id = #{id}</if>"
+      + "<choose>"
+      + "<when test=\"title != null and title != ''\">and title like #{title}</when>"
+      + "<when test=\"ids != null and !ids.isEmpty()\">and id in"
+      + "<foreach collection=\"ids\" item=\"item\" open=\"(\" separator=\",\" close=\")\">#{item}</foreach></when>"
+      + "<otherwise>and featured = 1</otherwise>"
+      + "</choose>"
+      + "<trim prefix=\"and (\" suffix=\")\" prefixOverrides=\"or\">"
+      + "<if test=\"author != null\">or author = #{author}</if>"
+      + "<if test=\"section != null\"><bind name=\"pattern\" value=\"section + '%'\"/>or section like #{pattern}</if>"
+      + "</trim>"
+      + "</where>"
+      + "<if test=\"orderBy != null\">order by ${orderBy}</if>"
+      + "</script>";
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldBuildTheSameSqlAsTheXmlLanguageDriver() {
+    SqlSource interpreted = new XMLLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+    SqlSource compiled = new CompilingLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+    assertTrue(((DynamicSqlSource) compiled).getRootSqlNode() instanceof CompiledSqlNode);
+
+    for (Map<String, Object> parameter : Arrays.asList(
+        parameter(),
+        parameter("id", 1),
+        parameter("id", 1, "title", "%mybatis%"),
+        parameter("title", "", "ids", Arrays.asList(1, 2, 3)),
+        parameter("ids", Collections.emptyList(), "author", "jim"),
+        parameter("id", 2, "author", "jim", "section", "NEWS", "orderBy", "id desc"),
+        parameter("section", "VIDEOS", "orderBy", "title"))) {
+      BoundSql expected = interpreted.getBoundSql(parameter);
+      BoundSql actual = compiled.getBoundSql(parameter);
+      assertEquals(expected.getSql(), actual.getSql());
+      assertEquals(actual.getSql(), compiled.getBoundSql(parameter).getSql());
+      assertEquals(properties(expected.getParameterMappings()), properties(actual.getParameterMappings()));
+      for (ParameterMapping parameterMapping : actual.getParameterMappings()) {
+        String property = parameterMapping.getProperty();
+        if (expected.hasAdditionalParameter(property)) {
+          assertEquals(expected.getAdditionalParameter(property), actual.getAdditionalParameter(property));
+        }
+      }
+    }
+  }
+
+  @Test
+  void shouldNotCompileStaticSql() {
+    LanguageDriver driver = new CompilingLanguageDriver();
+    SqlSource sqlSource = driver.createSqlSource(configuration, "<script>select * from blog where id = #{id}</script>", Integer.class);
+    assertEquals(new XMLLanguageDriver().createSqlSource(configuration, "<script>select * from blog where id = #{id}</script>",
+        Integer.class).getClass(), sqlSource.getClass());
+  }
+
+  @Test
+  void shouldNotCompileACompiledNodeAgain() {
+    DynamicSqlSource sqlSource = (DynamicSqlSource) new CompilingLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+    SqlNode compiledSqlNode = sqlSource.getRootSqlNode();
+    assertSame(compiledSqlNode, SqlNodeCompiler.compile(compiledSqlNode));
+  }
+
+  @Test
+  void shouldShareTheClassOfTheSameStructure() {
+    LanguageDriver driver = new CompilingLanguageDriver();
+    SqlNode first = ((DynamicSqlSource) driver.createSqlSource(configuration, SCRIPT, Map.class)).getRootSqlNode();
+    int generatedClassCount = SqlNodeCompiler.generatedClassCount();
+    for (int i = 0; i < 10; i++) {
+      // as a SQL provider builds its script on each execution
+      String script = SCRIPT.replace("featured = 1", "featured = " + i);
+      SqlNode compiled = ((DynamicSqlSource) driver.createSqlSource(configuration, script, Map.class)).getRootSqlNode();
+      assertSame(first.getClass(), compiled.getClass());
+    }
+    assertEquals(generatedClassCount, SqlNodeCompiler.generatedClassCount());
+  }
+
+  @Test
+  void shouldBeRegisteredAsCompiled() {
+    assertEquals(CompilingLanguageDriver.class, configuration.getTypeAliasRegistry().resolveAlias("COMPILED"));
+  }
+
+  private static Map<String, Object> parameter(Object... keysAndValues) {
+    Map<String, Object> parameter = new HashMap<>();
+    for (String key : Arrays.asList("id", "title", "ids", "author", "section", "orderBy")) {
+      parameter.put(key, null);
+    }
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      parameter.put((String) keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return parameter;
+  }
+
+  private static List<String> properties(List<ParameterMapping> parameterMappings) {
+    return parameterMappings.stream().map(ParameterMapping::getProperty).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,144 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_nested_select;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchNestedSelectTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/batch_nested_select/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_nested_select/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetCounter() {
+    QueryCounter.queries.clear();
+  }
+
+  @Test
+  void shouldLoadNestedSelectsInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Order> orders = mapper.getOrders();
+      assertOrders(orders);
+      assertEquals(1, QueryCounter.count("from orders"));
+      // 3 distinct customers with batchSize=2
+      assertEquals(2, QueryCounter.count("from customers"));
+      assertEquals(1, QueryCounter.count("from order_lines"));
+    }
+  }
+
+  @Test
+  void shouldLoadNestedSelectsForEachRowWithCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Order> orders = new ArrayList<>();
+      try (Cursor<Order> cursor = mapper.getOrdersCursor()) {
+        cursor.forEach(orders::add);
+      }
+      assertOrders(orders);
+    }
+  }
+
+  @Test
+  void shouldLoadNestedSelectsBeforeCallingResultHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Order> orders = new ArrayList<>();
+      mapper.getOrdersWithHandler(context -> {
+        Order order = context.getResultObject();
+        assertNotNull(order.getLines());
+        orders.add(order);
+      });
+      assertOrders(orders);
+    }
+  }
+
+  @Test
+  void shouldLoadLazyPropertiesOfSiblingsTogether() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Order> orders = mapper.getLazyOrders();
+      assertEquals(1, QueryCounter.queries.size());
+      assertEquals("Customer1", orders.get(0).getCustomer().getName());
+      assertEquals(1, QueryCounter.count("from customers"));
+      // loaded together with the first order
+      assertEquals("Customer2", orders.get(1).getCustomer().getName());
+      assertEquals(1, QueryCounter.count("from customers"));
+      assertEquals("Customer1", orders.get(2).getCustomer().getName());
+      assertEquals(2, QueryCounter.count("from customers"));
+      assertEquals(0, QueryCounter.count("from order_lines"));
+      assertOrders(orders);
+      assertEquals(2, QueryCounter.count("from customers"));
+      assertEquals(1, QueryCounter.count("from order_lines"));
+    }
+  }
+
+  @Test
+  void shouldNotOverwriteLazyPropertySetBeforeLoading() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Order> orders = mapper.getLazyOrders();
+      Customer customer = new Customer();
+      orders.get(1).setCustomer(customer);
+      assertEquals("Customer1", orders.get(0).getCustomer().getName());
+      assertSame(customer, orders.get(1).getCustomer());
+      // the third order takes the place of the second one in the batch
+      assertEquals("Customer1", orders.get(2).getCustomer().getName());
+      assertEquals(1, QueryCounter.count("from customers"));
+    }
+  }
+
+  private void assertOrders(List<Order> orders) {
+    assertEquals(5, orders.size());
+    assertEquals("Customer1", orders.get(0).getCustomer().getName());
+    assertEquals("Customer2", orders.get(1).getCustomer().getName());
+    assertEquals("Customer1", orders.get(2).getCustomer().getName());
+    assertEquals("Customer3", orders.get(3).getCustomer().getName());
+    assertNull(orders.get(4).getCustomer());
+    assertEquals(2, orders.get(0).getLines().size());
+    assertEquals("Product2", orders.get(0).getLines().get(1).getProduct());
+    assertEquals(1, orders.get(1).getLines().size());
+    assertTrue(orders.get(2).getLines().isEmpty());
+    assertEquals("Product4", orders.get(3).getLines().get(0).getProduct());
+  }
+
+}
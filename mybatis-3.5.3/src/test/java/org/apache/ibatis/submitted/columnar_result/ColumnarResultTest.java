@@ -0,0 +1,115 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ColumnarResult;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ColumnarResultTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar_result/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/columnar_result/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFillColumnsByType() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getSales();
+      assertEquals(4, result.size());
+      assertEquals(Arrays.asList("ID", "REGION", "AMOUNT", "QUANTITY", "SOLD_ON"), result.getColumnNames());
+
+      assertArrayEquals(new int[] { 1, 2, 3, 4 }, ((ColumnarResult.IntColumn) result.getColumn("id")).toArray());
+      assertArrayEquals(new double[] { 10.5, 20.0, 0, 40.25 }, ((ColumnarResult.DoubleColumn) result.getColumn("amount")).toArray());
+      assertTrue(result.getColumn("amount").isNull(2));
+      assertArrayEquals(new long[] { 100, 200, 300, 0 }, ((ColumnarResult.LongColumn) result.getColumn("quantity")).toArray());
+      assertNull(result.getValue(3, "quantity"));
+
+      ColumnarResult.StringColumn region = (ColumnarResult.StringColumn) result.getColumn("region");
+      assertEquals(Arrays.asList("north", "south"), region.getDictionary());
+      assertEquals(0, region.getCode(2));
+      assertEquals(-1, region.getCode(3));
+      assertEquals("south", region.getString(1));
+      assertTrue(region.isNull(3));
+
+      assertEquals(Date.valueOf("2019-01-02"), result.getValue(1, "sold_on"));
+      assertFalse(result.getColumn("sold_on").isNull(1));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<ColumnarResult> results = sqlSession.selectList("org.apache.ibatis.submitted.columnar_result.Mapper.getSales", null, new RowBounds(1, 2));
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] { 2, 3 }, ((ColumnarResult.IntColumn) results.get(0).getColumn("ID")).toArray());
+    }
+  }
+
+  @Test
+  void shouldSelectColumnarResultFromReturnType() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getSalesAfter(2);
+      assertEquals(2, result.size());
+      assertEquals(Arrays.asList(3, 4), Arrays.asList(result.getValue(0, "id"), result.getValue(1, "id")));
+    }
+  }
+
+  @Test
+  void shouldSerializeToTheCache() {
+    ColumnarResult first;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      first = sqlSession.getMapper(Mapper.class).getSales();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult cached = sqlSession.getMapper(Mapper.class).getSales();
+      assertNotSame(first, cached);
+      assertEquals(first.getColumnNames(), cached.getColumnNames());
+      assertEquals(4, cached.size());
+      assertArrayEquals(new int[] { 1, 2, 3, 4 }, ((ColumnarResult.IntColumn) cached.getColumn("id")).toArray());
+      assertEquals("south", ((ColumnarResult.StringColumn) cached.getColumn("region")).getString(1));
+      assertTrue(cached.getColumn("amount").isNull(2));
+      assertNull(cached.getValue(3, "region"));
+      assertEquals(Date.valueOf("2019-01-02"), cached.getValue(1, "sold_on"));
+    }
+  }
+
+}
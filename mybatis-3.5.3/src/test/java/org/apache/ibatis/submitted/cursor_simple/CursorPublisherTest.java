@@ -0,0 +1,204 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.CursorPublisher.Subscription;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CursorPublisherTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldPublishRequestedItemsOnly() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      RecordingSubscriber subscriber = new RecordingSubscriber(s -> s.request(2));
+      mapper.getAllUsersPublisher().subscribe(subscriber);
+
+      Assertions.assertEquals(2, subscriber.items.size());
+      Assertions.assertFalse(subscriber.completed);
+
+      subscriber.subscription.request(2);
+      Assertions.assertEquals(4, subscriber.items.size());
+      Assertions.assertFalse(subscriber.completed);
+
+      subscriber.subscription.request(10);
+      Assertions.assertEquals(5, subscriber.items.size());
+      Assertions.assertEquals("User5", subscriber.items.get(4).getName());
+      Assertions.assertTrue(subscriber.completed);
+      Assertions.assertNull(subscriber.error);
+    }
+  }
+
+  @Test
+  void shouldRequestFromOnNext() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = new ArrayList<>();
+      RecordingSubscriber subscriber = new RecordingSubscriber(s -> s.request(1)) {
+        @Override
+        public void onNext(User item) {
+          super.onNext(item);
+          subscription.request(1);
+        }
+      };
+      CursorPublisher<User> publisher = sqlSession.selectPublisher("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsersPublisher");
+      publisher.subscribe(subscriber);
+      Assertions.assertEquals(5, subscriber.items.size());
+      Assertions.assertTrue(subscriber.completed);
+    }
+  }
+
+  @Test
+  void shouldStopPublishingWhenCancelled() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      RecordingSubscriber subscriber = new RecordingSubscriber(s -> s.request(Long.MAX_VALUE)) {
+        @Override
+        public void onNext(User item) {
+          super.onNext(item);
+          if (items.size() == 2) {
+            subscription.cancel();
+          }
+        }
+      };
+      mapper.getAllUsersPublisher().subscribe(subscriber);
+      Assertions.assertEquals(2, subscriber.items.size());
+      Assertions.assertFalse(subscriber.completed);
+      Assertions.assertNull(subscriber.error);
+    }
+  }
+
+  @Test
+  void shouldSignalErrorOnInvalidRequest() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      RecordingSubscriber subscriber = new RecordingSubscriber(s -> s.request(0));
+      mapper.getAllUsersPublisher().subscribe(subscriber);
+      Assertions.assertTrue(subscriber.items.isEmpty());
+      Assertions.assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test
+  void shouldFailRequestsOnAnotherThreadThanTheSession() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      RecordingSubscriber subscriber = new RecordingSubscriber(s -> { });
+      mapper.getAllUsersPublisher().subscribe(subscriber);
+      Thread thread = new Thread(() -> subscriber.subscription.request(1));
+      thread.start();
+      thread.join();
+      Assertions.assertTrue(subscriber.items.isEmpty());
+      Assertions.assertTrue(subscriber.error instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  void shouldCancelWithoutSignallingTheSubscriberWhenOnNextFails() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      RecordingSubscriber subscriber = new RecordingSubscriber(s -> { }) {
+        @Override
+        public void onNext(User item) {
+          super.onNext(item);
+          throw new IllegalStateException("failed");
+        }
+      };
+      mapper.getAllUsersPublisher().subscribe(subscriber);
+      Assertions.assertThrows(IllegalStateException.class, () -> subscriber.subscription.request(2));
+      Assertions.assertEquals(1, subscriber.items.size());
+      Assertions.assertNull(subscriber.error);
+      subscriber.subscription.request(2);
+      Assertions.assertEquals(1, subscriber.items.size());
+      Assertions.assertFalse(subscriber.completed);
+    }
+  }
+
+  @Test
+  void shouldOpenSessionForEachSubscription() {
+    CursorPublisher<User> publisher = CursorPublisher.of(sqlSessionFactory,
+        "org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsersPublisher", null);
+    RecordingSubscriber first = new RecordingSubscriber(s -> s.request(Long.MAX_VALUE));
+    RecordingSubscriber second = new RecordingSubscriber(s -> s.request(3));
+    publisher.subscribe(first);
+    publisher.subscribe(second);
+    Assertions.assertEquals(5, first.items.size());
+    Assertions.assertTrue(first.completed);
+    Assertions.assertEquals(3, second.items.size());
+    second.subscription.cancel();
+    Assertions.assertFalse(second.completed);
+  }
+
+  private static class RecordingSubscriber implements CursorPublisher.Subscriber<User> {
+    private final Consumer<Subscription> onSubscribe;
+    protected final List<User> items = new ArrayList<>();
+    protected Subscription subscription;
+    protected boolean completed;
+    protected Throwable error;
+
+    RecordingSubscriber(Consumer<Subscription> onSubscribe) {
+      this.onSubscribe = onSubscribe;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      onSubscribe.accept(subscription);
+    }
+
+    @Override
+    public void onNext(User item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.foreach_in_list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.dialect.HsqldbDialect;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ForEachInListTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/foreach_in_list/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/foreach_in_list/CreateDB.sql");
+  }
+
+  @AfterEach
+  void resetDialect() {
+    sqlSessionFactory.getConfiguration().setDialect(null);
+  }
+
+  @Test
+  void shouldPadPlaceholdersToPowerOfTwo() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList("User1", "User3", "User5"), mapper.getUserNames(Arrays.asList(1, 3, 5)));
+      assertEquals(Collections.singletonList("User2"), mapper.getUserNames(Collections.singletonList(2)));
+    }
+    assertEquals(4, countPlaceholders(getUserNamesSql(Arrays.asList(1, 3, 5))));
+    assertEquals(4, countPlaceholders(getUserNamesSql(Arrays.asList(1, 2, 3, 4))));
+    assertEquals(8, countPlaceholders(getUserNamesSql(Arrays.asList(1, 2, 3, 4, 5))));
+    assertEquals(1, countPlaceholders(getUserNamesSql(Collections.singletonList(1))));
+  }
+
+  @Test
+  void shouldPadPlaceholdersOfAnyBody() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<String> names = sqlSession.getMapper(Mapper.class).getUserNamesByPair(Arrays.asList(user(1, "User1"), user(2, "Other"), user(4, "User4")));
+      assertEquals(Arrays.asList("User1", "User4"), names);
+    }
+  }
+
+  @Test
+  void shouldBindAnArrayWhenTheDialectSupportsIt() {
+    sqlSessionFactory.getConfiguration().setDialect(new HsqldbDialect());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList("User1", "User3", "User5"), mapper.getUserNames(Arrays.asList(1, 3, 5)));
+      assertEquals(Arrays.asList("User2", "User4"), mapper.getUserNames(Arrays.asList(4, 2)));
+    }
+    String sql = getUserNamesSql(Arrays.asList(1, 2, 3, 4, 5));
+    assertEquals(1, countPlaceholders(sql));
+    assertEquals("select name from users where id in ( UNNEST(?) ) order by id", sql.replaceAll("\\s+", " "));
+  }
+
+  @Test
+  void shouldPadWhenTheItemsCannotBeBoundAsAnArray() {
+    sqlSessionFactory.getConfiguration().setDialect(new HsqldbDialect());
+    // items of different types
+    assertEquals(4, countPlaceholders(getUserNamesSql(Arrays.asList(1, 2L, 3))));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(Arrays.asList("User1", "User2", "User3"), sqlSession.getMapper(Mapper.class).getUserNames(Arrays.asList(1, 2L, 3)));
+    }
+  }
+
+  @Test
+  void shouldPadWhenThePlaceholderHasOptions() {
+    sqlSessionFactory.getConfiguration().setDialect(new HsqldbDialect());
+    // the array would not be bound with the options of the placeholder
+    String sql = getSql("getUserNamesWithJdbcType", Arrays.asList(1, 3, 5));
+    assertEquals(4, countPlaceholders(sql));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(Arrays.asList("User1", "User3", "User5"), sqlSession.getMapper(Mapper.class).getUserNamesWithJdbcType(Arrays.asList(1, 3, 5)));
+    }
+  }
+
+  private String getUserNamesSql(List<?> ids) {
+    return getSql("getUserNames", ids);
+  }
+
+  private String getSql(String statement, List<?> ids) {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("ids", ids);
+    BoundSql boundSql = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.foreach_in_list.Mapper." + statement).getBoundSql(parameter);
+    assertEquals(countPlaceholders(boundSql.getSql()), boundSql.getParameterMappings().size());
+    return boundSql.getSql();
+  }
+
+  private int countPlaceholders(String sql) {
+    return sql.length() - sql.replace("?", "").length();
+  }
+
+  private Map<String, Object> user(int id, String name) {
+    Map<String, Object> user = new HashMap<>();
+    user.put("id", id);
+    user.put("name", name);
+    return user;
+  }
+
+}
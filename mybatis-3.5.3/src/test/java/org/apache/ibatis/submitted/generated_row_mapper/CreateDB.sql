@@ -0,0 +1,29 @@
+--
+--    Copyright ${license.git.copyrightYears} the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table items if exists;
+
+create table items (
+  id int,
+  name varchar(20),
+  quantity int,
+  price decimal(10, 2),
+  nickname varchar(20),
+  secret varchar(20)
+);
+
+insert into items (id, name, quantity, price, nickname, secret) values (1, 'Item1', 10, 1.50, 'one', 's1');
+insert into items (id, name, quantity, price, nickname, secret) values (2, 'Item2', null, null, null, 's2');
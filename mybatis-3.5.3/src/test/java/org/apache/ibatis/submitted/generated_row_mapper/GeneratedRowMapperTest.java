@@ -0,0 +1,97 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.generated_row_mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class GeneratedRowMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    sqlSessionFactory = build();
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/generated_row_mapper/CreateDB.sql");
+  }
+
+  private static SqlSessionFactory build() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/generated_row_mapper/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @Test
+  void shouldMapPropertyAndAutomaticMappings() {
+    assertTrue(sqlSessionFactory.getConfiguration().isRowMapperGenerationEnabled());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems();
+      assertEquals(2, items.size());
+      Item item = items.get(0);
+      assertEquals(Integer.valueOf(1), item.getId());
+      assertEquals("Item1", item.getLabel());
+      assertEquals(10, item.getQuantity());
+      assertEquals(new BigDecimal("1.50"), item.getPrice());
+      assertEquals("one", item.getNickname());
+    }
+  }
+
+  @Test
+  void shouldNotCallSettersOnNulls() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Item item = sqlSession.getMapper(Mapper.class).getItems().get(1);
+      assertEquals(-1, item.getQuantity());
+      assertNull(item.getPrice());
+      assertEquals("none", item.getNickname());
+    }
+  }
+
+  @Test
+  void shouldCallSettersOnNullsExceptPrimitives() throws Exception {
+    SqlSessionFactory factory = build();
+    factory.getConfiguration().setCallSettersOnNulls(true);
+    try (SqlSession sqlSession = factory.openSession()) {
+      Item item = sqlSession.getMapper(Mapper.class).getItems().get(1);
+      assertEquals(-1, item.getQuantity());
+      assertNull(item.getNickname());
+    }
+  }
+
+  @Test
+  void shouldFallBackWhenPropertyHasNoSetter() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItemsWithSecret();
+      assertEquals("s1", items.get(0).getSecret());
+      assertEquals("Item1", items.get(0).getLabel());
+      assertEquals(10, items.get(0).getQuantity());
+    }
+  }
+
+}
@@ -0,0 +1,59 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_row_mapping;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Reads timestamps with a calendar, which cannot be read ahead for the rows mapped in parallel.
+ */
+public class CalendarTimestampTypeHandler extends BaseTypeHandler<Timestamp> {
+
+  static final Set<Thread> THREADS = ConcurrentHashMap.newKeySet();
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Timestamp parameter, JdbcType jdbcType) throws SQLException {
+    ps.setTimestamp(i, parameter, Calendar.getInstance());
+  }
+
+  @Override
+  public Timestamp getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    THREADS.add(Thread.currentThread());
+    return rs.getTimestamp(columnName, Calendar.getInstance());
+  }
+
+  @Override
+  public Timestamp getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    THREADS.add(Thread.currentThread());
+    return rs.getTimestamp(columnIndex, Calendar.getInstance());
+  }
+
+  @Override
+  public Timestamp getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return cs.getTimestamp(columnIndex, Calendar.getInstance());
+  }
+
+}
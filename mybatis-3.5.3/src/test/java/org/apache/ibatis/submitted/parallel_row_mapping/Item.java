@@ -0,0 +1,68 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_row_mapping;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class Item {
+
+  private int id;
+  private String name;
+  private BigDecimal price;
+  private boolean even;
+  private LocalDate createdOn;
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public void setPrice(BigDecimal price) {
+    this.price = price;
+  }
+
+  public boolean isEven() {
+    return even;
+  }
+
+  public void setEven(boolean even) {
+    this.even = even;
+  }
+
+  public LocalDate getCreatedOn() {
+    return createdOn;
+  }
+
+  public void setCreatedOn(LocalDate createdOn) {
+    this.createdOn = createdOn;
+  }
+}
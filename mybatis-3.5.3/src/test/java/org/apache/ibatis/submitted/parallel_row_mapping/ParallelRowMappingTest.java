@@ -0,0 +1,181 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_row_mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.RowMappingParallelism;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelRowMappingTest {
+
+  private static final String GET_ITEMS = "org.apache.ibatis.submitted.parallel_row_mapping.Mapper.getItems";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_row_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_row_mapping/CreateDB.sql");
+  }
+
+  @AfterEach
+  void resetParallelism() {
+    sqlSessionFactory.getConfiguration().setRowMappingParallelism(RowMappingParallelism.ORDERED);
+  }
+
+  @Test
+  void shouldMapRowsInOrder() {
+    assertEquals(RowMappingParallelism.ORDERED, sqlSessionFactory.getConfiguration().getRowMappingParallelism());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems();
+      assertEquals(1000, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        Item item = items.get(i);
+        int id = i + 1;
+        assertEquals(id, item.getId());
+        assertEquals("item " + id, item.getName());
+        if (id % 10 == 0) {
+          assertNull(item.getPrice());
+        } else {
+          assertEquals(0, new BigDecimal(id).divide(new BigDecimal(4)).compareTo(item.getPrice()));
+        }
+        assertEquals(id % 2 == 0, item.isEven());
+        assertEquals(LocalDate.of(2019, 1, 1).plusDays(id), item.getCreatedOn());
+      }
+    }
+  }
+
+  @Test
+  void shouldMapAllRowsUnordered() {
+    sqlSessionFactory.getConfiguration().setRowMappingParallelism(RowMappingParallelism.UNORDERED);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItemsWithResultMap();
+      List<Integer> ids = items.stream().map(Item::getId).sorted().collect(Collectors.toList());
+      assertEquals(IntStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList()), ids);
+      assertTrue(items.stream().allMatch(item -> item.getName().equals("item " + item.getId())));
+    }
+  }
+
+  @Test
+  void shouldMapRowsToMapsWithTheMetadataOfTheColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      // the type handlers of map values read the metadata of the columns from the worker threads
+      List<Map<String, Object>> items = sqlSession.getMapper(Mapper.class).getItemsAsMaps();
+      assertEquals(1000, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        Map<String, Object> item = items.get(i);
+        assertEquals(i + 1, ((Number) item.get("ID")).intValue());
+        assertEquals("item " + (i + 1), item.get("NAME"));
+        assertEquals((i + 1) % 2 == 0, item.get("EVEN"));
+      }
+    }
+  }
+
+  @Test
+  void shouldReadColumnsWithTheGettersOfTheTypeHandlers() {
+    List<Map<String, Object>> items;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      // the values are formatted by the driver
+      items = sqlSession.getMapper(Mapper.class).getItemsAsText();
+    }
+    sqlSessionFactory.getConfiguration().setRowMappingParallelism(RowMappingParallelism.NONE);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(sqlSession.getMapper(Mapper.class).getItemsAsText(), items);
+    }
+    assertEquals(1000, items.size());
+    assertTrue(items.get(0).get("price") instanceof String);
+    assertNull(items.get(9).get("price"));
+  }
+
+  @Test
+  void shouldMapRowsSequentiallyWhenTheColumnsCannotBeReadAhead() {
+    CalendarTimestampTypeHandler.THREADS.clear();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> items = sqlSession.getMapper(Mapper.class).getItemsWithCalendar();
+      assertEquals(1000, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        assertEquals(i + 1, ((Number) items.get(i).get("id")).intValue());
+        assertEquals(Timestamp.valueOf(LocalDate.of(2019, 1, 1).plusDays(i + 1).atStartOfDay()), items.get(i).get("createdOn"));
+      }
+    }
+    assertEquals(Collections.singleton(Thread.currentThread()), CalendarTimestampTypeHandler.THREADS);
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.selectList(GET_ITEMS, null, new RowBounds(10, 300));
+      assertEquals(IntStream.rangeClosed(11, 310).boxed().collect(Collectors.toList()),
+          items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void shouldStopWhenTheResultHandlerStops() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Integer> ids = new ArrayList<>();
+      sqlSession.select(GET_ITEMS, context -> {
+        ids.add(((Item) context.getResultObject()).getId());
+        if (ids.size() == 5) {
+          context.stop();
+        }
+      });
+      assertEquals(IntStream.rangeClosed(1, 5).boxed().collect(Collectors.toList()), ids);
+    }
+  }
+
+  @Test
+  void shouldMapCursorRowsSequentially() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try (Cursor<Item> cursor = sqlSession.selectCursor(GET_ITEMS)) {
+        int expectedId = 1;
+        for (Item item : cursor) {
+          assertEquals(expectedId++, item.getId());
+        }
+        assertEquals(1001, expectedId);
+        assertFalse(cursor.isOpen());
+      }
+    }
+  }
+
+}
@@ -60,6 +60,11 @@ class RawSqlSourceTest {
     test("getUser3", DynamicSqlSource.class);
   }
 
+  @Test
+  void shouldUseRawSqlSourceForAnStatementWithLiteralXmlTags() {
+    test("getUser4", RawSqlSource.class);
+  }
+
   private void test(String statement, Class<? extends SqlSource> sqlSource) {
     try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
       Assertions.assertEquals(sqlSource, sqlSession.getConfiguration().getMappedStatement(statement).getSqlSource().getClass());
@@ -0,0 +1,40 @@
+--
+--    Copyright ${license.git.copyrightYears} the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table users if exists;
+drop table user_groups if exists;
+
+create table users (
+  id int,
+  name varchar(20),
+  group_id int
+);
+
+insert into users values(1, 'User1', 1);
+insert into users values(1, 'User1', 2);
+insert into users values(2, 'User2', 1);
+insert into users values(3, 'User3', 1);
+insert into users values(3, 'User3', 2);
+insert into users values(3, 'User3', 3);
+
+create table user_groups (
+  id int,
+  name varchar(20)
+);
+
+insert into user_groups values(1, 'Group1');
+insert into user_groups values(2, 'Group2');
+insert into user_groups values(3, 'Group3');
@@ -0,0 +1,110 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.result_ordered_detection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ResultOrderedDetectionTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/result_ordered_detection/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/result_ordered_detection/CreateDB.sql");
+  }
+
+  @Test
+  void shouldHandleCompleteParentsWhenOrderedById() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<String> handled = new ArrayList<>();
+      // the size of the collection is read when the parent is handled
+      mapper.getUsersOrderedById(context -> handled.add(context.getResultObject().getName() + ":" + context.getResultObject().getGroups().size()));
+      assertEquals("[User3:3, User2:1, User1:2]", handled.toString());
+    }
+  }
+
+  @Test
+  void shouldStreamCompleteParentsWithCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> users = mapper.getUsersOrderedById()) {
+        Iterator<User> iterator = users.iterator();
+        assertEquals(3, iterator.next().getGroups().size());
+        assertEquals(1, iterator.next().getGroups().size());
+        assertEquals(2, iterator.next().getGroups().size());
+        assertFalse(iterator.hasNext());
+      }
+    }
+  }
+
+  @Test
+  void shouldKeepTheDetectedOrderOfTheStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<String> handled = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).getUsersOrderedById(context -> handled.add(context.getResultObject().getName()));
+      assertEquals(3, handled.size());
+    }
+    MappedStatement mappedStatement = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.result_ordered_detection.Mapper.getUsersOrderedById");
+    String sql = mappedStatement.getBoundSql(null).getSql();
+    assertTrue(mappedStatement.getDetectedResultOrder(mappedStatement.getResultMaps().get(0), sql));
+  }
+
+  @Test
+  void shouldNotDetectOrderingByTheIdOfAJoinedTable() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersOrderedByGroup();
+      assertEquals(3, users.size());
+      assertEquals("[1, 2]", users.get(0).getGroups().toString());
+      assertEquals("[1]", users.get(1).getGroups().toString());
+      assertEquals("[1, 2, 3]", users.get(2).getGroups().toString());
+    }
+  }
+
+  @Test
+  void shouldRejectResultHandlerWhenNotOrderedById() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThrows(PersistenceException.class, () -> mapper.getUsersOrderedByName(context -> { }));
+    }
+  }
+
+}
@@ -0,0 +1,41 @@
+--
+--    Copyright ${license.git.copyrightYears} the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table users if exists;
+drop table pets if exists;
+
+create table users (
+  id int,
+  name varchar(20)
+);
+
+create table pets (
+  id int,
+  owner_id int,
+  name varchar(20)
+);
+
+insert into users (id, name) values (1, 'User1');
+insert into users (id, name) values (2, 'User2');
+insert into users (id, name) values (3, 'User3');
+insert into users (id, name) values (4, 'User4');
+insert into users (id, name) values (5, 'User5');
+insert into users (id, name) values (6, 'User6');
+
+insert into pets (id, owner_id, name) values (1, 1, 'Pet1');
+insert into pets (id, owner_id, name) values (2, 1, 'Pet2');
+insert into pets (id, owner_id, name) values (3, 2, 'Pet3');
+insert into pets (id, owner_id, name) values (4, 3, 'Pet4');
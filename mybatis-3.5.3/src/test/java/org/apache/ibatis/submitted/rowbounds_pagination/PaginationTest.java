@@ -0,0 +1,180 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.rowbounds_pagination;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.dialect.HsqldbDialect;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PaginationTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static SqlSessionFactory clientSideSqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/rowbounds_pagination/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/rowbounds_pagination/mybatis-config.xml")) {
+      clientSideSqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    clientSideSqlSessionFactory.getConfiguration().setDialect(null);
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/rowbounds_pagination/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void clearRecorder() {
+    StatementRecorder.clear();
+  }
+
+  @Test
+  void shouldResolveDialectAlias() {
+    assertTrue(sqlSessionFactory.getConfiguration().getDialect() instanceof HsqldbDialect);
+  }
+
+  @Test
+  void shouldPushOffsetAndLimitDownToTheDatabase() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(3, 4), ids(mapper.getUsers(new RowBounds(2, 2))));
+      assertTrue(StatementRecorder.sqls.get(0).endsWith("order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+      assertEquals(0, StatementRecorder.maxRows.get(0));
+    }
+  }
+
+  @Test
+  void shouldPushOffsetOrLimitAloneDownToTheDatabase() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(5, 6), ids(mapper.getUsers(new RowBounds(4, RowBounds.NO_ROW_LIMIT))));
+      assertEquals(ids(1, 2), ids(mapper.getUsers(new RowBounds(0, 2))));
+      assertTrue(StatementRecorder.sqls.get(0).endsWith("order by id OFFSET ? ROWS"));
+      assertTrue(StatementRecorder.sqls.get(1).endsWith("order by id FETCH NEXT ? ROWS ONLY"));
+    }
+  }
+
+  @Test
+  void shouldBindPageAfterStatementParameters() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(2, 3), ids(mapper.getUsersByName("User%", new RowBounds(1, 2))));
+    }
+  }
+
+  @Test
+  void shouldAppendPageAfterTrailingComment() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(3, 4), ids(mapper.getUsersWithComment(new RowBounds(2, 2))));
+      assertTrue(StatementRecorder.sqls.get(0).endsWith("order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+    }
+  }
+
+  @Test
+  void shouldKeepClientSideBoundsForQueryWithLimit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(2, 3), ids(mapper.getUsersWithLimit(new RowBounds(1, 2))));
+      assertTrue(StatementRecorder.sqls.get(0).endsWith("order by id limit 4"));
+      assertEquals(3, StatementRecorder.maxRows.get(0));
+    }
+  }
+
+  @Test
+  void shouldNotRewriteQueryWithoutRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(6, mapper.getUsers(RowBounds.DEFAULT).size());
+      assertFalse(StatementRecorder.sqls.get(0).contains("OFFSET"));
+    }
+  }
+
+  @Test
+  void shouldCachePagesSeparately() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(1, 2), ids(mapper.getUsers(new RowBounds(0, 2))));
+      assertEquals(ids(3, 4), ids(mapper.getUsers(new RowBounds(2, 2))));
+      assertEquals(ids(1, 2), ids(mapper.getUsers(new RowBounds(0, 2))));
+      assertEquals(2, StatementRecorder.sqls.size());
+    }
+  }
+
+  @Test
+  void shouldKeepClientSideBoundsForNestedResultMaps() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersWithPets(new RowBounds(0, 2));
+      assertEquals(ids(1, 2), ids(users));
+      assertEquals(2, users.get(0).getPets().size());
+      assertFalse(StatementRecorder.sqls.get(0).contains("OFFSET"));
+      assertEquals(0, StatementRecorder.maxRows.get(0));
+    }
+  }
+
+  @Test
+  void shouldPushRowBoundsOfCursorDownToTheDatabase() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = new ArrayList<>();
+      try (Cursor<User> cursor = mapper.getUsersCursor(new RowBounds(3, 2))) {
+        cursor.forEach(users::add);
+      }
+      assertEquals(ids(4, 5), ids(users));
+      assertTrue(StatementRecorder.sqls.get(0).endsWith("OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+    }
+  }
+
+  @Test
+  void shouldLimitFetchedRowsWithoutDialect() {
+    try (SqlSession sqlSession = clientSideSqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(ids(3, 4), ids(mapper.getUsers(new RowBounds(2, 2))));
+      assertFalse(StatementRecorder.sqls.get(0).contains("OFFSET"));
+      assertEquals(4, StatementRecorder.maxRows.get(0));
+    }
+  }
+
+  private static List<Integer> ids(Integer... ids) {
+    return Arrays.asList(ids);
+  }
+
+  private static List<Integer> ids(List<User> users) {
+    return users.stream().map(User::getId).collect(Collectors.toList());
+  }
+
+}
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.annotations.DeleteProvider;
@@ -58,6 +59,7 @@ class SqlProviderTest {
       sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
       sqlSessionFactory.getConfiguration().addMapper(StaticMethodSqlProviderMapper.class);
       sqlSessionFactory.getConfiguration().addMapper(DatabaseIdMapper.class);
+      sqlSessionFactory.getConfiguration().addMapper(CacheKeyMapper.class);
     }
     // populate in-memory database
     BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
@@ -664,6 +666,19 @@ class SqlProviderTest {
     }
   }
 
+  @Test
+  void cacheKeyMethodNotFound() throws NoSuchMethodException {
+    try {
+      Class<?> mapperType = ErrorMapper.class;
+      Method mapperMethod = mapperType.getMethod("cacheKeyMethodNotFound");
+      new ProviderSqlSource(new Configuration(),
+          mapperMethod.getAnnotation(SelectProvider.class), mapperType, mapperMethod);
+      fail();
+    } catch (BuilderException e) {
+      assertTrue(e.getMessage().contains("Cache key method 'cacheKeyNotFound' with the same arguments as 'invokeError' not found in SqlProvider 'org.apache.ibatis.submitted.sqlprovider.SqlProviderTest$ErrorSqlBuilder'."));
+    }
+  }
+
   @Test
   @SuppressWarnings("deprecation")
   void keepBackwardCompatibilityOnDeprecatedConstructorWithAnnotation() throws NoSuchMethodException {
@@ -698,6 +713,9 @@ class SqlProviderTest {
     @DeleteProvider(type = ErrorSqlBuilder.class, method = "invalidArgumentsCombination")
     void invalidArgumentsCombination(String value);
 
+    @SelectProvider(type = ErrorSqlBuilder.class, method = "invokeError", cacheKeyMethod = "cacheKeyNotFound")
+    void cacheKeyMethodNotFound();
+
   }
 
   @SuppressWarnings("unused")
@@ -955,4 +973,45 @@ class SqlProviderTest {
     }
   }
 
+  @Test
+  void shouldBuildSqlOncePerCacheKey() {
+    CacheKeyMapper.SqlProvider.invocations.set(0);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CacheKeyMapper mapper = sqlSession.getMapper(CacheKeyMapper.class);
+      List<User> users = mapper.getUsers("id DESC", 3);
+      assertEquals(3, users.size());
+      assertEquals("User3", users.get(0).getName());
+      users = mapper.getUsers("id DESC", 2);
+      assertEquals(2, users.size());
+      assertEquals("User2", users.get(0).getName());
+      users = mapper.getUsers("id ASC", 2);
+      assertEquals(2, users.size());
+      assertEquals("User1", users.get(0).getName());
+      assertEquals(2, CacheKeyMapper.SqlProvider.invocations.get());
+      // a null key is never cached
+      mapper.getUsers(null, 2);
+      mapper.getUsers(null, 2);
+      assertEquals(4, CacheKeyMapper.SqlProvider.invocations.get());
+    }
+  }
+
+  interface CacheKeyMapper {
+    @SelectProvider(type = SqlProvider.class, cacheKeyMethod = "cacheKey")
+    List<User> getUsers(@Param("orderBy") String orderBy, @Param("maxId") Integer maxId);
+
+    @SuppressWarnings("unused")
+    class SqlProvider {
+      static final AtomicInteger invocations = new AtomicInteger();
+
+      public static String provideSql(@Param("orderBy") String orderBy, @Param("maxId") Integer maxId) {
+        invocations.incrementAndGet();
+        return "SELECT id, name FROM users WHERE id <= #{maxId} ORDER BY " + (orderBy == null ? "id" : orderBy);
+      }
+
+      public static String cacheKey(@Param("orderBy") String orderBy, @Param("maxId") Integer maxId) {
+        return orderBy;
+      }
+    }
+  }
+
 }